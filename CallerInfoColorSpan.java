@@ -0,0 +1,35 @@
+package com.meizu.incallui.widget;
+
+import android.content.res.ColorStateList;
+import android.text.TextPaint;
+import android.text.style.CharacterStyle;
+import android.text.style.UpdateAppearance;
+
+/**
+ * 可修改颜色的文字颜色span。
+ * <p>
+ * 修改颜色后将span重新setSpan()到原来的位置, TextView只重绘, 不重新measure和排版。
+ * </p>
+ */
+final class CallerInfoColorSpan extends CharacterStyle implements UpdateAppearance {
+    private ColorStateList mColor;
+
+    CallerInfoColorSpan(ColorStateList color) {
+        mColor = color;
+    }
+
+    ColorStateList getColor() {
+        return mColor;
+    }
+
+    void setColor(ColorStateList color) {
+        mColor = color;
+    }
+
+    @Override
+    public void updateDrawState(TextPaint tp) {
+        if (mColor != null) {
+            tp.setColor(mColor.getColorForState(tp.drawableState, mColor.getDefaultColor()));
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.meizu.incallui.widget;
+
+import android.content.res.Configuration;
+import android.graphics.Typeface;
+import android.text.TextUtils;
+import android.util.LruCache;
+
+import java.util.Locale;
+
+/**
+ * 所有CallerInfoView共用的省略结果缓存。
+ * <p>
+ * 通话在拨号/通话中/保持之间切换、会议列表重新绑定、通话界面回到前台时，同样的姓名号码会以
+ * 同样的字体大小和宽度再次显示，直接返回上次省略后的显示内容，不再measure。
+ * </p>
+ * key为(文字, 字体大小, 字体, 同行其它内容宽度, 最大宽度)；字体缩放、density或语言变化时清空。
+ */
+final class CallerInfoDisplayTextCache {
+    private static final int MAX_SIZE = 64;
+
+    private static final LruCache<Key, String> sCache = new LruCache<Key, String>(MAX_SIZE) {
+        @Override
+        protected void entryRemoved(boolean evicted, Key key, String oldValue,
+                String newValue) {
+            if (evicted) {
+                // 缓存满后每次put()都会淘汰一项, 其key留给下一次put()
+                key.set(null, 0, null, 0, 0);
+                sSpareKey = key;
+            }
+        }
+    };
+    /** 查找用的key, 避免每次查找都分配对象, 需在sCache锁内使用 */
+    private static final Key sProbe = new Key();
+    /** 被淘汰的key, 下一次put()复用, 需在sCache锁内使用 */
+    private static Key sSpareKey;
+
+    private static float sFontScale;
+    private static int sDensityDpi;
+    private static Locale sLocale;
+
+    private CallerInfoDisplayTextCache() {
+    }
+
+    /** @return 缓存的显示内容, 没有则返回null */
+    static String get(String text, int textSize, Typeface typeface, int extraWidth,
+            int maxWidth) {
+        synchronized (sCache) {
+            sProbe.set(text, textSize, typeface, extraWidth, maxWidth);
+            return sCache.get(sProbe);
+        }
+    }
+
+    static void put(String text, int textSize, Typeface typeface, int extraWidth, int maxWidth,
+            String displayText) {
+        synchronized (sCache) {
+            Key key = sSpareKey;
+            if (key == null) {
+                key = new Key();
+            } else {
+                sSpareKey = null;
+            }
+            key.set(text, textSize, typeface, extraWidth, maxWidth);
+            sCache.put(key, displayText);
+        }
+    }
+
+    /** 字体文件等变化时调用, 清空所有缓存 */
+    static void invalidate() {
+        synchronized (sCache) {
+            sCache.evictAll();
+        }
+    }
+
+    /** 字体缩放, density, 语言变化时清空缓存 */
+    static void onConfigurationChanged(Configuration config) {
+        if (config == null) {
+            return;
+        }
+        synchronized (sCache) {
+            if (sFontScale != config.fontScale || sDensityDpi != config.densityDpi
+                    || (sLocale != null && !sLocale.equals(config.locale))) {
+                sCache.evictAll();
+            }
+            sFontScale = config.fontScale;
+            sDensityDpi = config.densityDpi;
+            sLocale = config.locale;
+        }
+    }
+
+    static String dump() {
+        return "CallerInfoDisplayTextCache size: " + sCache.size() + "/" + sCache.maxSize()
+                + ", hit: " + sCache.hitCount() + ", miss: " + sCache.missCount()
+                + ", evict: " + sCache.evictionCount();
+    }
+
+    private static final class Key {
+        String text;
+        int textSize;
+        Typeface typeface;
+        int extraWidth;
+        int maxWidth;
+
+        void set(String text, int textSize, Typeface typeface, int extraWidth, int maxWidth) {
+            this.text = text;
+            this.textSize = textSize;
+            this.typeface = typeface;
+            this.extraWidth = extraWidth;
+            this.maxWidth = maxWidth;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return textSize == other.textSize && extraWidth == other.extraWidth
+                    && maxWidth == other.maxWidth
+                    && (typeface != null ? typeface.equals(other.typeface) : other.typeface == null)
+                    && TextUtils.equals(text, other.text);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = text != null ? text.hashCode() : 0;
+            result = 31 * result + textSize;
+            result = 31 * result + (typeface != null ? typeface.hashCode() : 0);
+            result = 31 * result + extraWidth;
+            result = 31 * result + maxWidth;
+            return result;
+        }
+    }
+}
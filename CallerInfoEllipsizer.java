@@ -0,0 +1,273 @@
+package com.meizu.incallui.widget;
+
+import com.android.incallui.Log;
+import com.meizu.incallui.utils.DbgUtils;
+
+import android.graphics.Typeface;
+
+/**
+ * CallerInfoView的省略计算。
+ * <p>
+ * 与原逐字缩减的实现结果一致：BlueSky -> BlueSk... ，每次去掉末尾一个字并trim()，
+ * 第一个加上"..."后不超出最大宽度的结果即为显示内容；缩减到2个字以内仍超出则不加"..."。
+ * </p>
+ * <p>
+ * 原实现每缩减一个字就measure一次整串，O(n²)。这里只取一次每个字的宽度，
+ * 累加成前缀和后二分查找截断位置，最后measure整串校验截断点，保证与原逐字measure的结果相同。
+ * </p>
+ * 非线程安全，每个使用者持有自己的实例。
+ */
+final class CallerInfoEllipsizer {
+    private static final String TAG = "CallerInfoEllipsizer";
+
+    static final String ELLIPSIS = "...";
+
+    private final TextMeasurer mMeasurer;
+
+    /** 每个字的宽度 */
+    private float[] mWidths = new float[32];
+    /** 前缀和: mPrefixWidths[i]为前i个字的宽度 */
+    private float[] mPrefixWidths = new float[33];
+    /** 校验用: 截断后的文字 + "..." */
+    private char[] mChars = new char[32 + ELLIPSIS.length()];
+    /** 一次省略计算中二分查找和校验的次数, 用于统计 */
+    private int mIterations;
+
+    // 增量计算: 拨号, DTMF输入, 号码补全时号码逐位变化, 新号码与上次的号码开头相同。
+    // 上次的文字都是宽度可累加的字时保留其前缀和, 下次只measure新增的字, 见extendPrefixWidths()
+    /** mPrefixWidths[0..mLastText.length()]为它的前缀和, 为null时前缀和无效 */
+    private String mLastText;
+    private Typeface mLastTypeface;
+    private int mLastTextSize;
+    private int mLastGeneration;
+
+    CallerInfoEllipsizer() {
+        this(new GlyphCacheTextMeasurer(new PaintTextMeasurer()));
+    }
+
+    CallerInfoEllipsizer(TextMeasurer measurer) {
+        mMeasurer = measurer;
+    }
+
+    /**
+     * 先查{@link CallerInfoDisplayTextCache}, 没有再measure并省略
+     * @param text 原始文字
+     * @param textSize 字体大小
+     * @param typeface 字体
+     * @param extraWidth 同一行其它内容(扩展标签, 卡图标)的宽度
+     * @param maxWidth 一行最大宽度, <= 0时不省略
+     * @return 显示的文字
+     */
+    String getDisplayText(String text, int textSize, Typeface typeface, int extraWidth,
+            int maxWidth) {
+        if (maxWidth <= 0) {
+            return text;
+        }
+        String ret = CallerInfoDisplayTextCache.get(text, textSize, typeface, extraWidth, maxWidth);
+        if (ret != null) {
+            return ret;
+        }
+        ret = ellipsize(text, textSize, typeface, extraWidth, maxWidth);
+        CallerInfoDisplayTextCache.put(text, textSize, typeface, extraWidth, maxWidth, ret);
+        return ret;
+    }
+
+    /**
+     * 不经过{@link CallerInfoDisplayTextCache}直接measure并省略, 结果不放入缓存
+     * @see #getDisplayText(String, int, Typeface, int, int)
+     */
+    String ellipsize(String text, int textSize, Typeface typeface, int extraWidth,
+            int maxWidth) {
+        if (maxWidth <= 0) {
+            return text;
+        }
+        mMeasurer.setTextStyle(typeface, textSize);
+        final int generation = GlyphCacheTextMeasurer.generation();
+        if (mLastTypeface != typeface || mLastTextSize != textSize
+                || mLastGeneration != generation) {
+            mLastText = null;
+            mLastTypeface = typeface;
+            mLastTextSize = textSize;
+            mLastGeneration = generation;
+        }
+        return ellipsize(text, mMeasurer, extraWidth, maxWidth);
+    }
+
+    /**
+     * @param text 原始文字
+     * @param measurer 已设置好字体大小和字体
+     * @param extraWidth 同一行其它内容(扩展标签, 卡图标)的宽度
+     * @param maxWidth 一行最大宽度, <= 0时不省略
+     * @return 显示的文字
+     */
+    String ellipsize(String text, TextMeasurer measurer, int extraWidth, int maxWidth) {
+        if (maxWidth <= 0) {
+            return text;
+        }
+        final int length = text.length();
+        // 增量计算时前缀和的最后一项即整串的宽度, 不用再measure整串
+        final boolean incremental = measurer == mMeasurer && extendPrefixWidths(text);
+        final float width = incremental ? mPrefixWidths[length]
+                : measurer.measureText(text, 0, length);
+        if (okToShowAsSingleline((int) width, extraWidth, maxWidth)) {
+            return text;
+        }
+        if (length <= 2) {
+            return text;
+        }
+
+        mIterations = 0;
+        if (!incremental) {
+            mLastText = null;
+            ensureCapacity(length);
+            measurer.getTextWidths(text, mWidths);
+            mPrefixWidths[0] = 0;
+            for (int i = 0; i < length; i++) {
+                mPrefixWidths[i + 1] = mPrefixWidths[i] + mWidths[i];
+            }
+        }
+        final float ellipsisWidth = measurer.measureText(ELLIPSIS, 0, ELLIPSIS.length());
+
+        // 第一次缩减后trim()会去掉开头的空格, 之后每次的结果都是text.substring(start, end)
+        int start = 0;
+        while (start < length - 1 && text.charAt(start) <= ' ') {
+            start++;
+        }
+        // 逐字缩减到2个字以内时停止, 这是最后一个会被检查的截断位置
+        final int minEnd = trimEnd(text, start, Math.min(start + 2, length - 1));
+
+        // 二分查找按宽度能显示的最长截断位置
+        int lo = start;
+        int hi = length - 1;
+        int fit = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            mIterations++;
+            int textWidth = (int) (mPrefixWidths[mid] - mPrefixWidths[start] + ellipsisWidth);
+            if (okToShowAsSingleline(textWidth, extraWidth, maxWidth)) {
+                fit = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+            if (DbgUtils.DBG_CIV) {
+                Log.d(TAG, "computeText() toCheck...  end: " + mid + "/" + length
+                        + ", textWidth: " + textWidth
+                        + ", extraWidth: " + extraWidth
+                        + ", totalWidth: " + (textWidth + extraWidth)
+                        + ", maxWidth: " + maxWidth);
+            }
+        }
+
+        int end = fit < minEnd ? minEnd : trimEnd(text, start, fit);
+        // 宽度累加与整串measure可能有几px出入(字间距调整), 在截断点附近用整串的宽度校正
+        while (end >= minEnd && !fits(text, start, end, measurer, extraWidth, maxWidth)) {
+            end = trimEnd(text, start, end - 1);
+        }
+        if (end >= minEnd) {
+            int next = nextEnd(text, end, length - 1);
+            while (next > end && fits(text, start, next, measurer, extraWidth, maxWidth)) {
+                end = next;
+                next = nextEnd(text, end, length - 1);
+            }
+        } else {
+            // 缩减到2个字以内仍超出最大宽度, 不加"..."
+            CallerInfoStats.countEllipsize(mIterations);
+            return text.substring(start, minEnd);
+        }
+
+        CallerInfoStats.countEllipsize(mIterations);
+        // 截断后的文字和"..."拼在mChars中, 只创建结果一个String
+        final int count = end - start;
+        text.getChars(start, end, mChars, 0);
+        ELLIPSIS.getChars(0, ELLIPSIS.length(), mChars, count);
+        String ret = new String(mChars, 0, count + ELLIPSIS.length());
+        if (DbgUtils.DBG_CIV) {
+            int textWidth = (int) measurer.measureText(ret, 0, ret.length());
+            Log.d(TAG, "computeText() check!!!  get: " + ret
+                    + ", strWidth: " + (int) measurer.measureText(text, start, end)
+                    + ", ...W: " + ellipsisWidth
+                    + ", textWidth: " + textWidth
+                    + ", totalWidth: " + (textWidth + extraWidth));
+        }
+        return ret;
+    }
+
+    /**
+     * 增量计算mMeasurer下text的前缀和: 与上次的文字开头相同的部分直接使用, 只measure之后新增的字。
+     * 前缀和按从左到右依次累加, 与measureText()整串的结果完全相同, 省略结果不变。
+     * @return text都是宽度可累加的字, mPrefixWidths已是text的前缀和; 否则返回false, 前缀和无效
+     */
+    private boolean extendPrefixWidths(String text) {
+        final int length = text.length();
+        final String lastText = mLastText;
+        int from = 0;
+        if (lastText != null) {
+            final int common = Math.min(length, lastText.length());
+            while (from < common && text.charAt(from) == lastText.charAt(from)) {
+                from++;
+            }
+        }
+        for (int i = from; i < length; i++) {
+            if (!mMeasurer.isAdditive(text.charAt(i))) {
+                mLastText = null;
+                return false;
+            }
+        }
+        ensureCapacity(length);
+        mPrefixWidths[0] = 0;
+        for (int i = from; i < length; i++) {
+            mWidths[i] = mMeasurer.measureText(text, i, i + 1);
+            mPrefixWidths[i + 1] = mPrefixWidths[i] + mWidths[i];
+        }
+        mLastText = text;
+        return true;
+    }
+
+    /** text.substring(start, end) + "..." 是否能在一行内显示 */
+    private boolean fits(String text, int start, int end, TextMeasurer measurer,
+            int extraWidth, int maxWidth) {
+        mIterations++;
+        final int count = end - start;
+        text.getChars(start, end, mChars, 0);
+        ELLIPSIS.getChars(0, ELLIPSIS.length(), mChars, count);
+        int textWidth = (int) measurer.measureText(mChars, 0, count + ELLIPSIS.length());
+        return okToShowAsSingleline(textWidth, extraWidth, maxWidth);
+    }
+
+    /** 与String.trim()一致, 去掉end之前的空白字符, 但不越过start */
+    private static int trimEnd(String text, int start, int end) {
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    /** 比end长的下一个截断位置, 没有则返回end */
+    private static int nextEnd(String text, int end, int maxEnd) {
+        for (int i = end + 1; i <= maxEnd; i++) {
+            if (text.charAt(i - 1) > ' ') {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    private void ensureCapacity(int length) {
+        if (mWidths.length < length) {
+            int size = Math.max(length, mWidths.length * 2);
+            // 保留增量计算的前缀和
+            final float[] widths = new float[size];
+            final float[] prefixWidths = new float[size + 1];
+            System.arraycopy(mWidths, 0, widths, 0, mWidths.length);
+            System.arraycopy(mPrefixWidths, 0, prefixWidths, 0, mPrefixWidths.length);
+            mWidths = widths;
+            mPrefixWidths = prefixWidths;
+            mChars = new char[size + ELLIPSIS.length()];
+        }
+    }
+
+    static boolean okToShowAsSingleline(int textWidth, int extraIconWidth, int maxWidth) {
+        return textWidth + extraIconWidth < maxWidth;
+    }
+}
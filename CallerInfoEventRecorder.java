@@ -0,0 +1,123 @@
+package com.meizu.incallui.widget;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 记录最近的CallerInfoView变化(设置数据, buildText, setText...), 用于问题分析时dump。
+ * <p>
+ * 事件以基本类型写入固定大小的环形缓冲区, 记录时不加锁, 不分配对象, 不拼接字符串;
+ * 只在{@link #dump()}时格式化。文字只记录hashCode, 用于比较前后是否变化, 不记录号码等内容。
+ * </p>
+ * 并发记录时dump可能读到正在写入的事件, 仅用于调试。
+ */
+final class CallerInfoEventRecorder {
+    /** setInfos(): arg0为变化的字段, arg1为卡槽, arg2为姓名和号码的hash */
+    static final int EVENT_SET_INFOS = 1;
+    /** 单个set***(): arg0为字段, arg1为新值的hash或数值 */
+    static final int EVENT_SET_FIELD = 2;
+    /** buildText(): arg0为generation, arg1为1时异步计算, arg2为需重新省略的行(1: 第一行, 2: 第二行) */
+    static final int EVENT_BUILD = 3;
+    /** setText(): arg0为第一行长度, arg1为第二行长度, arg2为第一行的hash */
+    static final int EVENT_APPLY = 4;
+    /** 显示内容未变化, 跳过setText(): arg0为generation */
+    static final int EVENT_SKIP = 5;
+    /** 丢弃过期的异步计算结果: arg0为结果的generation, arg1为当前generation */
+    static final int EVENT_DROP_ASYNC = 6;
+    /** 清空显示内容 */
+    static final int EVENT_CLEAR = 7;
+    /** 只更新颜色: arg0为1时高亮 */
+    static final int EVENT_STYLE = 8;
+
+    static final int FIELD_NAME = 1;
+    static final int FIELD_NUMBER = 1 << 1;
+    static final int FIELD_LOCATION = 1 << 2;
+    static final int FIELD_LABEL = 1 << 3;
+    static final int FIELD_SLOT = 1 << 4;
+    static final int FIELD_VIDEO_STATUS = 1 << 5;
+    static final int FIELD_EXTRA_ICON = 1 << 6;
+    static final int FIELD_EXTRA_ICON_COLOR = 1 << 7;
+    static final int FIELD_EXTRA_ICON_BG_COLOR = 1 << 8;
+    static final int FIELD_TEXT_SIZE = 1 << 9;
+
+    private static final String[] EVENT_NAMES = {
+        "?", "setInfos", "setField", "build", "apply", "skip", "dropAsync", "clear", "style"
+    };
+    private static final String[] FIELD_NAMES = {
+        "name", "number", "location", "label", "slot", "videoStatus", "extraIcon",
+        "extraIconColor", "extraIconBgColor", "textSize"
+    };
+
+    /** 2的幂 */
+    private static final int CAPACITY = 256;
+
+    private static final AtomicLong sSequence = new AtomicLong();
+    private static final long[] sTimes = new long[CAPACITY];
+    private static final int[] sTypes = new int[CAPACITY];
+    private static final int[] sViews = new int[CAPACITY];
+    private static final int[] sArg0 = new int[CAPACITY];
+    private static final int[] sArg1 = new int[CAPACITY];
+    private static final int[] sArg2 = new int[CAPACITY];
+
+    private CallerInfoEventRecorder() {
+    }
+
+    static void record(int type, Object view, int arg0, int arg1, int arg2) {
+        final int index = (int) (sSequence.getAndIncrement() & (CAPACITY - 1));
+        sTypes[index] = type;
+        sTimes[index] = System.currentTimeMillis();
+        sViews[index] = System.identityHashCode(view);
+        sArg0[index] = arg0;
+        sArg1[index] = arg1;
+        sArg2[index] = arg2;
+    }
+
+    static int hash(String s) {
+        return s == null ? 0 : s.hashCode();
+    }
+
+    /** 按时间顺序格式化最近的事件 */
+    static String dump() {
+        final long end = sSequence.get();
+        final long begin = Math.max(0, end - CAPACITY);
+        final SimpleDateFormat format = new SimpleDateFormat("HH:mm:ss.SSS", Locale.US);
+        final StringBuilder sb = new StringBuilder("CallerInfoEventRecorder ")
+                .append(end - begin).append('/').append(end).append(" events");
+        for (long seq = begin; seq < end; seq++) {
+            final int index = (int) (seq & (CAPACITY - 1));
+            final int type = sTypes[index];
+            sb.append("\n  ").append(format.format(new Date(sTimes[index])))
+                    .append(' ').append(Integer.toHexString(sViews[index]))
+                    .append(' ').append(type > 0 && type < EVENT_NAMES.length
+                            ? EVENT_NAMES[type] : EVENT_NAMES[0]);
+            if (type == EVENT_SET_INFOS || type == EVENT_SET_FIELD) {
+                sb.append(' ');
+                appendFields(sb, sArg0[index]);
+                sb.append(' ').append(Integer.toHexString(sArg1[index]))
+                        .append(' ').append(Integer.toHexString(sArg2[index]));
+            } else {
+                sb.append(' ').append(sArg0[index])
+                        .append(' ').append(sArg1[index])
+                        .append(' ').append(Integer.toHexString(sArg2[index]));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void appendFields(StringBuilder sb, int fields) {
+        sb.append('[');
+        boolean first = true;
+        for (int i = 0; i < FIELD_NAMES.length; i++) {
+            if ((fields & (1 << i)) != 0) {
+                if (!first) {
+                    sb.append('|');
+                }
+                sb.append(FIELD_NAMES[i]);
+                first = false;
+            }
+        }
+        sb.append(']');
+    }
+}
@@ -0,0 +1,74 @@
+package com.meizu.incallui.widget;
+
+import android.content.res.ColorStateList;
+import android.graphics.Typeface;
+import android.graphics.drawable.Drawable;
+import android.text.TextUtils;
+
+/**
+ * CallerInfoView最终显示内容的摘要: 两行省略后的文字, 字体, 字体大小, 颜色, 扩展标签, 卡图标和最大宽度。
+ * <p>
+ * 各输入(姓名, 号码, 归属地...)变化时显示内容不一定变化, 如备注优先显示时归属地变化, 姓名由null变为""。
+ * 摘要相同时不再setText(), 避免重新排版。
+ * </p>
+ */
+final class CallerInfoFingerprint {
+    String firstLineText;
+    String secondLineText;
+    Typeface firstLineTypeface;
+    Typeface secondLineTypeface;
+    int firstLineTextSize;
+    int secondLineTextSize;
+    ColorStateList firstLineColor;
+    ColorStateList secondLineColor;
+    String extraIconText;
+    /** 扩展标签文字和颜色对应的预绘制标签 */
+    ExtraIconBadgeCache.Badge extraIconBadge;
+    Drawable simIndicator;
+    int maxWidth;
+    CallerInfoMetrics metrics;
+    /** 为false时与任何摘要都不相同 */
+    boolean valid;
+
+    void clear() {
+        valid = false;
+        firstLineText = null;
+        secondLineText = null;
+        extraIconBadge = null;
+        simIndicator = null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CallerInfoFingerprint)) {
+            return false;
+        }
+        CallerInfoFingerprint other = (CallerInfoFingerprint) o;
+        return valid && other.valid
+                && firstLineTextSize == other.firstLineTextSize
+                && secondLineTextSize == other.secondLineTextSize
+                && extraIconBadge == other.extraIconBadge
+                && maxWidth == other.maxWidth
+                && firstLineColor == other.firstLineColor
+                && secondLineColor == other.secondLineColor
+                && firstLineTypeface == other.firstLineTypeface
+                && secondLineTypeface == other.secondLineTypeface
+                && simIndicator == other.simIndicator
+                && metrics == other.metrics
+                && TextUtils.equals(firstLineText, other.firstLineText)
+                && TextUtils.equals(secondLineText, other.secondLineText)
+                && TextUtils.equals(extraIconText, other.extraIconText);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = firstLineText != null ? firstLineText.hashCode() : 0;
+        result = 31 * result + (secondLineText != null ? secondLineText.hashCode() : 0);
+        result = 31 * result + firstLineTextSize;
+        result = 31 * result + secondLineTextSize;
+        return result;
+    }
+}
@@ -0,0 +1,102 @@
+package com.meizu.incallui.widget;
+
+import android.graphics.Typeface;
+import android.text.TextUtils;
+
+/**
+ * CallerInfoView中一行的组合结果: 文案和省略后的文字。
+ * <p>
+ * 文案依赖的数据(姓名, 号码, 归属地...)变化时由CallerInfoView标记{@link #dirty}, 否则直接复用上次的文案;
+ * 省略结果按(文案, 字体大小, 字体, 额外宽度, 最大宽度)复用。
+ * 如号码查询结果到达时只有第二行变化, 第一行不再重新measure和省略。
+ * </p>
+ */
+final class CallerInfoLine {
+    /** 字体文件变化时加1, 所有行的省略结果随之失效 */
+    private static volatile int sGeneration;
+
+    /** 文案依赖的数据有变化, 需重新生成 */
+    boolean dirty = true;
+    /** 文案, 为null时不显示该行 */
+    String text;
+    /** 省略后的文字 */
+    String displayText;
+
+    // displayText对应的输入
+    private String mEllipsizedText;
+    private int mTextSize;
+    private Typeface mTypeface;
+    private int mExtraWidth;
+    private int mMaxWidth;
+    private int mGeneration;
+
+    void setText(String text) {
+        this.text = text;
+        dirty = false;
+    }
+
+    /** 与上次省略时的输入相同, {@link #displayText}可直接使用 */
+    boolean isDisplayTextValid(int textSize, Typeface typeface, int extraWidth, int maxWidth) {
+        return displayText != null && mGeneration == sGeneration
+                && mTextSize == textSize && mTypeface == typeface
+                && mExtraWidth == extraWidth && mMaxWidth == maxWidth
+                && TextUtils.equals(mEllipsizedText, text);
+    }
+
+    void setDisplayText(String displayText, String text, int textSize, Typeface typeface,
+            int extraWidth, int maxWidth) {
+        this.displayText = displayText;
+        mEllipsizedText = text;
+        mTextSize = textSize;
+        mTypeface = typeface;
+        mExtraWidth = extraWidth;
+        mMaxWidth = maxWidth;
+        mGeneration = sGeneration;
+    }
+
+    void clear() {
+        dirty = true;
+        text = null;
+        displayText = null;
+        mEllipsizedText = null;
+        mTypeface = null;
+    }
+
+    /** 字体文件变化时调用 */
+    static void invalidateAll() {
+        sGeneration++;
+    }
+
+    /** 第一行文案: 有姓名显示姓名, 否则显示号码 */
+    static String composeFirstLineText(String name, String number) {
+        String text;
+        if (TextUtils.isEmpty(name)) {
+            text = number;
+        } else {
+            text = name;
+        }
+
+        return text;
+    }
+
+    /** 第二行文案: 号码 + (备注或归属地), 视频电话拨号时只显示通话状态 */
+    static String composeSecondLineText(String name, String number, String label,
+            String location, String videoCallDialingStatus) {
+        // FLYME:zhulanting@Incallui: [#691642, 2018/1/15] {@
+        if (!TextUtils.isEmpty(videoCallDialingStatus)) {
+            return videoCallDialingStatus;
+        }
+        // @}
+        // 只有一项时直接返回, 不拼接
+        final String extra = !TextUtils.isEmpty(label) ? label
+                : !TextUtils.isEmpty(location) ? location : "";
+        if (TextUtils.isEmpty(name) || TextUtils.isEmpty(number)) {
+            // 姓名为空时，第二行不显示号码
+            return extra;
+        }
+        if (extra.isEmpty()) {
+            return number;
+        }
+        return number + "  " + extra;
+    }
+}
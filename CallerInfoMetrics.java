@@ -0,0 +1,66 @@
+package com.meizu.incallui.widget;
+
+import com.android.incallui.R;
+
+import android.content.res.Configuration;
+import android.content.res.Resources;
+
+/**
+ * CallerInfoView用到的尺寸, 每个配置只从Resources读取一次, 所有实例共用。
+ * 配置的任何变化(density, 字体缩放, 横竖屏, 窗口大小, uiMode...)都重新读取, values-land等限定符下的尺寸也能生效。
+ * <p>
+ * 子类需要不同的margin时覆盖CallerInfoView的getSimIconTopMargin()/getExtraIconTopMargin()。
+ * </p>
+ */
+final class CallerInfoMetrics {
+    /** 默认第一行文字大小 */
+    final int firstLineTextSize;
+    /** 默认第二行文字大小 */
+    final int secondLineTextSize;
+    /** 扩展标签文字大小 */
+    final int extraIconTextSize;
+    final int extraIconPaddingHorizontal;
+    final int extraIconPaddingVertical;
+    /** 扩展标签圆角矩形radius */
+    final int extraIconBgRectRadius;
+    final int extraIconMarginTop;
+    /** 扩展标签, 卡图标与前面内容的间距 */
+    final int extraIconMarginLeft;
+    final int simIconMarginTop;
+    /** 自动最大宽度的粒度(8dp), 见CallerInfoView.setAutoMaxContentWidth() */
+    final int autoWidthBucket;
+
+    /** 读取时的配置, 不修改 */
+    private final Configuration mConfig;
+
+    private static volatile CallerInfoMetrics sMetrics;
+
+    private CallerInfoMetrics(Resources res, Configuration config) {
+        firstLineTextSize = res.getDimensionPixelSize(R.dimen.text_size_big);
+        secondLineTextSize = res.getDimensionPixelSize(R.dimen.text_size_secondary);
+        extraIconTextSize = res.getDimensionPixelSize(R.dimen.mz_callcard_extra_icon_text_size);
+        extraIconPaddingHorizontal = res.getDimensionPixelSize(
+                R.dimen.mz_callcard_extra_icon_padding_horizontal);
+        extraIconPaddingVertical = res.getDimensionPixelSize(
+                R.dimen.mz_callcard_extra_icon_padding_vertical);
+        extraIconBgRectRadius = res.getDimensionPixelSize(
+                R.dimen.mz_callcard_extra_icon_bg_rect_radius);
+        extraIconMarginTop = res.getDimensionPixelSize(R.dimen.mz_callcard_extra_icon_margin_top);
+        extraIconMarginLeft = res.getDimensionPixelSize(
+                R.dimen.mz_callcard_extra_icon_margin_left);
+        simIconMarginTop = res.getDimensionPixelSize(R.dimen.mz_caller_info_sim_icon_margin_top);
+        autoWidthBucket = Math.max(1, (int) (8 * res.getDisplayMetrics().density + 0.5f));
+        mConfig = new Configuration(config);
+    }
+
+    /** @return 当前配置下的尺寸, 配置有变化时重新读取 */
+    static CallerInfoMetrics get(Resources res) {
+        final Configuration config = res.getConfiguration();
+        CallerInfoMetrics metrics = sMetrics;
+        if (metrics == null || metrics.mConfig.diff(config) != 0) {
+            metrics = new CallerInfoMetrics(res, config);
+            sMetrics = metrics;
+        }
+        return metrics;
+    }
+}
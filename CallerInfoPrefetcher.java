@@ -0,0 +1,72 @@
+package com.meizu.incallui.widget;
+
+import android.os.Looper;
+import android.os.MessageQueue;
+
+import java.util.ArrayDeque;
+
+/**
+ * CallerInfoView.prefetch()的执行者: UI线程空闲时每次计算一行, 不影响正在进行的滑动和动画。
+ */
+final class CallerInfoPrefetcher implements MessageQueue.IdleHandler {
+    /** 最多保留的待计算行数, 超出时丢弃最早的 */
+    private static final int MAX_PENDING = 16;
+
+    private final CallerInfoView mView;
+    private final ArrayDeque<Request> mPending = new ArrayDeque<Request>();
+    private boolean mScheduled;
+
+    CallerInfoPrefetcher(CallerInfoView view) {
+        mView = view;
+    }
+
+    void add(String name, String number, String location, String label, int slotId,
+            String extraIconText) {
+        if (mPending.size() >= MAX_PENDING) {
+            mPending.pollFirst();
+        }
+        mPending.addLast(new Request(name, number, location, label, slotId, extraIconText));
+        if (!mScheduled) {
+            mScheduled = true;
+            Looper.myQueue().addIdleHandler(this);
+        }
+    }
+
+    void cancel() {
+        mPending.clear();
+        if (mScheduled) {
+            mScheduled = false;
+            Looper.myQueue().removeIdleHandler(this);
+        }
+    }
+
+    @Override
+    public boolean queueIdle() {
+        final Request request = mPending.pollFirst();
+        if (request != null) {
+            mView.prefetchNow(request.name, request.number, request.location, request.label,
+                    request.slotId, request.extraIconText);
+        }
+        mScheduled = !mPending.isEmpty();
+        return mScheduled;
+    }
+
+    private static final class Request {
+        final String name;
+        final String number;
+        final String location;
+        final String label;
+        final int slotId;
+        final String extraIconText;
+
+        Request(String name, String number, String location, String label, int slotId,
+                String extraIconText) {
+            this.name = name;
+            this.number = number;
+            this.location = location;
+            this.label = label;
+            this.slotId = slotId;
+            this.extraIconText = extraIconText;
+        }
+    }
+}
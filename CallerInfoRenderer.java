@@ -0,0 +1,211 @@
+package com.meizu.incallui.widget;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.graphics.drawable.Drawable;
+import android.view.Gravity;
+
+/**
+ * 不经过TextView和Spannable, 直接在Canvas上绘制CallerInfo：
+ * <p>
+ * 第一行： 姓名或号码 / 扩展标签(预绘制的圆角矩形背景+文字) / SIM卡标识
+ * </p>
+ * <p>
+ * 第二行： 号码 +（归属地，备注，黄页信息）
+ * </p>
+ * 内容变化后调用{@link #layout()}计算各部分位置, draw()只做绘制。
+ * 位置按从左到右计算, 水平对齐和RTL镜像在绘制时处理, 不需要重新layout()。
+ */
+final class CallerInfoRenderer {
+    private final Paint mFirstLinePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint mSecondLinePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint.FontMetricsInt mFontMetrics = new Paint.FontMetricsInt();
+
+    private String mFirstLineText;
+    private String mSecondLineText;
+
+    private Drawable mBadge;
+    private int mBadgeLeftMargin;
+    private int mBadgeTopMargin;
+
+    private Drawable mSimIndicator;
+    private int mSimLeftMargin;
+    private int mSimTopMargin;
+
+    // layout()的结果
+    private float mFirstLineBaseline;
+    private float mFirstLineTextWidth;
+    private float mFirstLineWidth;
+    private float mSecondLineWidth;
+    private float mBadgeX;
+    private float mSimX;
+    private float mSimY;
+    private float mSecondLineBaseline;
+    private int mFirstLineHeight;
+    private int mWidth;
+    private int mHeight;
+
+    void setFirstLine(String text, Typeface typeface, int textSize, int color) {
+        mFirstLineText = text;
+        mFirstLinePaint.setTypeface(typeface);
+        mFirstLinePaint.setTextSize(textSize);
+        mFirstLinePaint.setColor(color);
+    }
+
+    /** @param text 为null时不显示第二行 */
+    void setSecondLine(String text, Typeface typeface, int textSize, int color) {
+        mSecondLineText = text;
+        mSecondLinePaint.setTypeface(typeface);
+        mSecondLinePaint.setTextSize(textSize);
+        mSecondLinePaint.setColor(color);
+    }
+
+    /** 扩展标签, 与TextView显示时相同的预绘制标签, drawable为null时不显示, bounds需已设置 */
+    void setBadge(Drawable drawable, int leftMargin, int topMargin) {
+        mBadge = drawable;
+        mBadgeLeftMargin = leftMargin;
+        mBadgeTopMargin = topMargin;
+    }
+
+    /** 只修改颜色, 不影响位置, 不需要重新layout() */
+    void setFirstLineColor(int firstLineColor) {
+        mFirstLinePaint.setColor(firstLineColor);
+    }
+
+    /** 卡图标, drawable为null时不显示, bounds需已设置 */
+    void setSimIndicator(Drawable drawable, int leftMargin, int topMargin) {
+        mSimIndicator = drawable;
+        mSimLeftMargin = leftMargin;
+        mSimTopMargin = topMargin;
+    }
+
+    /** 计算各部分位置和总宽高 */
+    void layout() {
+        if (mFirstLineText == null) {
+            mWidth = 0;
+            mHeight = 0;
+            return;
+        }
+        mFirstLinePaint.getFontMetricsInt(mFontMetrics);
+        mFirstLineBaseline = -mFontMetrics.ascent;
+        int firstLineHeight = mFontMetrics.descent - mFontMetrics.ascent;
+        float x = mFirstLinePaint.measureText(mFirstLineText);
+        mFirstLineTextWidth = x;
+
+        if (mBadge != null) {
+            mBadgeX = x + mBadgeLeftMargin;
+            x = mBadgeX + mBadge.getIntrinsicWidth();
+            firstLineHeight = Math.max(firstLineHeight,
+                    mBadgeTopMargin + mBadge.getIntrinsicHeight());
+        }
+
+        if (mSimIndicator != null) {
+            mSimX = x + mSimLeftMargin;
+            mSimY = mSimTopMargin;
+            x = mSimX + mSimIndicator.getIntrinsicWidth();
+            firstLineHeight = Math.max(firstLineHeight,
+                    mSimTopMargin + mSimIndicator.getIntrinsicHeight());
+        }
+
+        mFirstLineHeight = firstLineHeight;
+        mFirstLineWidth = x;
+        int width = (int) Math.ceil(x);
+        int height = firstLineHeight;
+        if (mSecondLineText != null) {
+            mSecondLinePaint.getFontMetricsInt(mFontMetrics);
+            mSecondLineBaseline = firstLineHeight - mFontMetrics.ascent;
+            height += mFontMetrics.descent - mFontMetrics.ascent;
+            mSecondLineWidth = mSecondLinePaint.measureText(mSecondLineText);
+            width = Math.max(width, (int) Math.ceil(mSecondLineWidth));
+        }
+        mWidth = width;
+        mHeight = height;
+    }
+
+    int getWidth() {
+        return mWidth;
+    }
+
+    int getHeight() {
+        return mHeight;
+    }
+
+    String getFirstLineText() {
+        return mFirstLineText;
+    }
+
+    String getSecondLineText() {
+        return mSecondLineText;
+    }
+
+    /**
+     * 从(0, 0)开始绘制, 调用前需layout()。缩放用于字体大小动画: 两行分别以各自左上角为中心缩放, 第二行随第一行高度下移
+     * @param availableWidth 可用宽度, 每行在其中按horizontalGravity对齐
+     * @param horizontalGravity 已按布局方向解析的水平对齐: Gravity.LEFT, RIGHT或CENTER_HORIZONTAL
+     * @param rtl 为true时第一行从右到左排列: 姓名在右, 扩展标签和卡图标依次在左
+     * @param firstLineScale 第一行(含扩展标签, 卡图标)缩放比例
+     * @param secondLineScale 第二行缩放比例
+     */
+    void draw(Canvas canvas, int availableWidth, int horizontalGravity, boolean rtl,
+            float firstLineScale, float secondLineScale) {
+        if (mFirstLineText == null) {
+            return;
+        }
+        int count = canvas.save();
+        canvas.translate(lineOffset(availableWidth, mFirstLineWidth * firstLineScale,
+                horizontalGravity), 0);
+        canvas.scale(firstLineScale, firstLineScale);
+        drawFirstLine(canvas, rtl);
+        canvas.restoreToCount(count);
+
+        if (mSecondLineText != null) {
+            count = canvas.save();
+            canvas.translate(lineOffset(availableWidth, mSecondLineWidth * secondLineScale,
+                    horizontalGravity), mFirstLineHeight * firstLineScale);
+            canvas.scale(secondLineScale, secondLineScale);
+            canvas.drawText(mSecondLineText, 0, mSecondLineBaseline - mFirstLineHeight,
+                    mSecondLinePaint);
+            canvas.restoreToCount(count);
+        }
+    }
+
+    private static float lineOffset(int availableWidth, float lineWidth, int horizontalGravity) {
+        switch (horizontalGravity) {
+            case Gravity.RIGHT:
+                return availableWidth - lineWidth;
+            case Gravity.CENTER_HORIZONTAL:
+                return (availableWidth - lineWidth) / 2;
+            default:
+                return 0;
+        }
+    }
+
+    private void drawFirstLine(Canvas canvas, boolean rtl) {
+        canvas.drawText(mFirstLineText, rtl ? mFirstLineWidth - mFirstLineTextWidth : 0,
+                mFirstLineBaseline, mFirstLinePaint);
+        if (mBadge != null) {
+            final int count = canvas.save();
+            canvas.translate(rtl ? mFirstLineWidth - mBadgeX - mBadge.getIntrinsicWidth()
+                    : mBadgeX, mBadgeTopMargin);
+            mBadge.draw(canvas);
+            canvas.restoreToCount(count);
+        }
+        if (mSimIndicator != null) {
+            final int count = canvas.save();
+            canvas.translate(rtl ? mFirstLineWidth - mSimX - mSimIndicator.getIntrinsicWidth()
+                    : mSimX, mSimY);
+            mSimIndicator.draw(canvas);
+            canvas.restoreToCount(count);
+        }
+    }
+
+    void clear() {
+        mFirstLineText = null;
+        mSecondLineText = null;
+        mBadge = null;
+        mSimIndicator = null;
+        mWidth = 0;
+        mHeight = 0;
+    }
+}
@@ -0,0 +1,168 @@
+package com.meizu.incallui.widget;
+
+import com.meizu.incallui.utils.DbgUtils;
+
+/**
+ * CallerInfoView显示内容计算的统计: buildText()次数, 显示内容未变化的次数, 省略计算的次数和迭代次数,
+ * 以及各阶段耗时分布。
+ * <p>
+ * 默认随DbgUtils.DBG_CIV打开, 关闭时各记录方法只读一个volatile变量。记录时不拼接字符串,
+ * 只在{@link #dump()}时格式化。
+ * </p>
+ */
+final class CallerInfoStats {
+    /** 生成两行文案: getFirstLineText()/getSecondLineText() */
+    static final int STAGE_LINE_TEXT = 0;
+    /** measure并省略 */
+    static final int STAGE_ELLIPSIZE = 1;
+    /** 设置span */
+    static final int STAGE_SPAN_BUILD = 2;
+    /** setText() */
+    static final int STAGE_SET_TEXT = 3;
+    /** onMeasure() */
+    static final int STAGE_MEASURE = 4;
+    /** onDraw() */
+    static final int STAGE_DRAW = 5;
+
+    private static final String[] STAGE_NAMES = {
+        "lineText", "ellipsize", "spanBuild", "setText", "measure", "draw"
+    };
+    private static final int STAGE_COUNT = STAGE_NAMES.length;
+    /** 耗时分布: 第i个桶为[2^(i-1), 2^i)微秒, 最后一个桶为更长的耗时 */
+    private static final int BUCKET_COUNT = 16;
+
+    private static volatile boolean sEnabled = DbgUtils.DBG_CIV;
+
+    private static final long[][] sHistogram = new long[STAGE_COUNT][BUCKET_COUNT];
+    private static final long[] sStageCount = new long[STAGE_COUNT];
+    private static final long[] sStageTotalNanos = new long[STAGE_COUNT];
+    private static final long[] sStageMaxNanos = new long[STAGE_COUNT];
+    private static long sBuildCount;
+    private static long sSameOutputCount;
+    private static long sEllipsizeCount;
+    private static long sEllipsizeIterations;
+
+    // 冷启动: 进程内第一次buildText()的耗时, 以及warmUp()的耗时, 始终记录, 与sEnabled无关
+    private static volatile long sFirstBuildNanos = -1;
+    private static volatile long sWarmUpNanos = -1;
+
+    private CallerInfoStats() {
+    }
+
+    static boolean isEnabled() {
+        return sEnabled;
+    }
+
+    static void setEnabled(boolean enabled) {
+        sEnabled = enabled;
+    }
+
+    /** @return 开始时间, 关闭时返回0 */
+    static long begin() {
+        return sEnabled ? System.nanoTime() : 0;
+    }
+
+    /** 记录一个阶段的耗时, startNanos为{@link #begin()}的返回值 */
+    static void end(int stage, long startNanos) {
+        if (!sEnabled || startNanos == 0) {
+            return;
+        }
+        final long nanos = System.nanoTime() - startNanos;
+        final int bucket = Math.min(BUCKET_COUNT - 1,
+                64 - Long.numberOfLeadingZeros(nanos / 1000));
+        synchronized (sHistogram) {
+            sHistogram[stage][bucket]++;
+            sStageCount[stage]++;
+            sStageTotalNanos[stage] += nanos;
+            if (nanos > sStageMaxNanos[stage]) {
+                sStageMaxNanos[stage] = nanos;
+            }
+        }
+    }
+
+    /** @return 进程内第一次buildText()尚未记录时返回开始时间, 否则返回0 */
+    static long beginFirstBuild() {
+        return sFirstBuildNanos < 0 ? System.nanoTime() : 0;
+    }
+
+    /** 记录第一次buildText()的耗时, startNanos为{@link #beginFirstBuild()}的返回值 */
+    static void endFirstBuild(long startNanos) {
+        if (startNanos != 0 && sFirstBuildNanos < 0) {
+            sFirstBuildNanos = System.nanoTime() - startNanos;
+        }
+    }
+
+    static void setWarmUpNanos(long nanos) {
+        sWarmUpNanos = nanos;
+    }
+
+    /** @param sameOutput 显示内容与上次相同 */
+    static void countBuild(boolean sameOutput) {
+        if (!sEnabled) {
+            return;
+        }
+        synchronized (sHistogram) {
+            sBuildCount++;
+            if (sameOutput) {
+                sSameOutputCount++;
+            }
+        }
+    }
+
+    /** @param iterations 一次省略计算中measure的次数 */
+    static void countEllipsize(int iterations) {
+        if (!sEnabled) {
+            return;
+        }
+        synchronized (sHistogram) {
+            sEllipsizeCount++;
+            sEllipsizeIterations += iterations;
+        }
+    }
+
+    static void reset() {
+        synchronized (sHistogram) {
+            for (int i = 0; i < STAGE_COUNT; i++) {
+                for (int j = 0; j < BUCKET_COUNT; j++) {
+                    sHistogram[i][j] = 0;
+                }
+                sStageCount[i] = 0;
+                sStageTotalNanos[i] = 0;
+                sStageMaxNanos[i] = 0;
+            }
+            sBuildCount = 0;
+            sSameOutputCount = 0;
+            sEllipsizeCount = 0;
+            sEllipsizeIterations = 0;
+        }
+    }
+
+    static String dump() {
+        StringBuilder sb = new StringBuilder("CallerInfoStats enabled: ").append(sEnabled)
+                .append("\n  firstBuildUs: ").append(sFirstBuildNanos < 0 ? -1 : sFirstBuildNanos / 1000)
+                .append(", warmUpUs: ").append(sWarmUpNanos < 0 ? -1 : sWarmUpNanos / 1000);
+        synchronized (sHistogram) {
+            sb.append("\n  build: ").append(sBuildCount)
+                    .append(", sameOutput: ").append(sSameOutputCount)
+                    .append(", ellipsize: ").append(sEllipsizeCount)
+                    .append(", ellipsizeIterations: ").append(sEllipsizeIterations);
+            for (int i = 0; i < STAGE_COUNT; i++) {
+                final long count = sStageCount[i];
+                sb.append("\n  ").append(STAGE_NAMES[i])
+                        .append(" count: ").append(count)
+                        .append(", avgUs: ").append(count == 0 ? 0 : sStageTotalNanos[i] / count / 1000)
+                        .append(", maxUs: ").append(sStageMaxNanos[i] / 1000)
+                        .append(", histUs:");
+                for (int j = 0; j < BUCKET_COUNT; j++) {
+                    if (sHistogram[i][j] != 0) {
+                        sb.append(' ').append(j == BUCKET_COUNT - 1 ? ">=" : "<")
+                                .append(1L << (j == BUCKET_COUNT - 1 ? j - 1 : j))
+                                .append(':').append(sHistogram[i][j]);
+                    }
+                }
+            }
+        }
+        sb.append("\n  ").append(CallerInfoDisplayTextCache.dump());
+        return sb.toString();
+    }
+}
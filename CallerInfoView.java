@@ -5,30 +5,38 @@ import com.android.incallui.Call;
 import com.android.incallui.Log;
 import com.android.incallui.R;
 import com.meizu.incallui.ui.InCallTypeface;
-import com.meizu.incallui.ui.SimSlotIndicatorHelper;
 import com.meizu.incallui.utils.DbgUtils;
 
 import android.content.Context;
 import android.content.res.ColorStateList;
+import android.content.res.Configuration;
 import android.content.res.Resources;
 import android.content.res.TypedArray;
 import android.graphics.Canvas;
 import android.graphics.Color;
-import android.graphics.Paint;
 import android.graphics.Typeface;
 import android.graphics.drawable.Drawable;
 import android.os.Handler;
+import android.os.Looper;
 import android.os.Message;
+import android.os.Process;
+import android.text.Layout;
 import android.text.Spannable;
 import android.text.SpannableString;
 import android.text.Spanned;
+import android.text.TextPaint;
 import android.text.TextUtils;
-import android.text.style.AbsoluteSizeSpan;
 import android.text.style.TextAppearanceSpan;
-import android.text.style.TypefaceSpan;
 import android.util.AttributeSet;
+import android.view.Gravity;
+import android.view.accessibility.AccessibilityEvent;
+import android.view.accessibility.AccessibilityNodeInfo;
 import android.widget.TextView;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
 /**
  * 采用SpannableString定制TextView显示CallerInfo。依次显示：
  * <p>
@@ -77,6 +85,12 @@ public abstract class CallerInfoView extends TextView {
     protected int mSlotId = -1;
     /** SIM卡图标 */
     protected Drawable mSimIndicator;
+    /** mSimIndicator的宽度 */
+    private int mSimIconWidth;
+    /** mSimIndicator对应的共用缓存项 */
+    private SimIndicatorCache.Entry mSimEntry;
+    /** 读取mSimEntry时的缓存代数, 缓存清空后重新读取 */
+    private int mSimGeneration;
     // FLYME:zhulanting@Incallui: [#691642, 2018/1/15] {@
     /** 视频电话拨号时通话状态 */
     protected String mVideoCallDialingStatus;
@@ -87,9 +101,166 @@ public abstract class CallerInfoView extends TextView {
 
     protected int mExtraIconColor = Color.WHITE;
     protected int mExtraIconBgColor = Color.GREEN;
+    /** 调用过setExtraIconColor()/setExtraIconBgColor(), 否则使用RadiusBackgroundSpan默认的颜色 */
+    private boolean mExtraIconCustomColors;
 
     /** Text显示最大宽度, Text + extraIcon + simIcon若超出此宽度则应该省略 */
     protected int mMaxTextContentWidth;
+    /** @see #setAutoMaxContentWidth(boolean) */
+    private boolean mAutoMaxContentWidth;
+
+    private static final int MSG_BUILD_TEXT = 1;
+    private static final int MSG_APPLY_ASYNC_BUILD = 2;
+
+    /**
+     * 异步计算显示内容的线程, 所有CallerInfoView共用。
+     * 来电动画期间姓名要等它算完才显示, 使用与UI相同的显示优先级, 不能被后台任务饿死
+     */
+    private static final ExecutorService sBuildExecutor = Executors.newSingleThreadExecutor(
+            new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable r) {
+                    return new Thread(new Runnable() {
+                        @Override
+                        public void run() {
+                            Process.setThreadPriority(Process.THREAD_PRIORITY_DISPLAY);
+                            r.run();
+                        }
+                    }, "CallerInfoBuild");
+                }
+            });
+    /** 仅在sBuildExecutor线程中使用 */
+    private static final CallerInfoEllipsizer sAsyncEllipsizer = new CallerInfoEllipsizer();
+    /** 卡图标span占用的文字 */
+    private static final String SIM_PLACEHOLDER = "slot";
+    /**
+     * setText(text, BufferType.SPANNABLE)时直接使用applyDisplayText()新建的{@link ComposedText}, 不再复制。
+     * TextView会持有并修改传入的Spannable, 因此只对ComposedText生效,
+     * 外部调用setText()传入的Spannable仍按TextView默认的方式复制, 之后修改不影响调用方
+     */
+    static final Spannable.Factory SPANNABLE_FACTORY = new Spannable.Factory() {
+        @Override
+        public Spannable newSpannable(CharSequence source) {
+            return source instanceof ComposedText ? (Spannable) source : super.newSpannable(source);
+        }
+    };
+    /** warmUp()时计算的文字, 包含号码中所有的字 */
+    private static final String WARM_UP_TEXT = "+86 (0123) 456-789*#.";
+
+    /** @see #setAsyncBuild(boolean) */
+    private boolean mAsyncBuild;
+    /** 当前显示内容的摘要, 与新内容的摘要相同时不再setText() */
+    private CallerInfoFingerprint mAppliedFingerprint = new CallerInfoFingerprint();
+    private CallerInfoFingerprint mNewFingerprint = new CallerInfoFingerprint();
+    /** 当前显示的两行文字(省略后) */
+    private String mFirstLineDisplayText;
+    private String mSecondLineDisplayText;
+
+    // 两行分别缓存文案, 省略结果和span, 只有一行的数据变化时另一行直接复用
+    private final CallerInfoLine mFirstLine = new CallerInfoLine();
+    private final CallerInfoLine mSecondLine = new CallerInfoLine();
+
+    // 文案可能依赖的数据, 见getFirstLineDependencies()/getSecondLineDependencies()
+    protected static final int DATA_NAME = 1;
+    protected static final int DATA_NUMBER = 1 << 1;
+    protected static final int DATA_LOCATION = 1 << 2;
+    protected static final int DATA_LABEL = 1 << 3;
+    protected static final int DATA_SLOT = 1 << 4;
+    protected static final int DATA_VIDEO_STATUS = 1 << 5;
+    protected static final int DATA_EXTRA_ICON = 1 << 6;
+    /**
+     * 字体大小动画中, mFirstLineTextSize/mSecondLineTextSize为排版时的字体大小,
+     * mAnimFirstLineTextSize/mAnimSecondLineTextSize为当前帧的字体大小
+     * @see #startTextSizeAnimation(int, int)
+     */
+    private boolean mTextSizeAnimating;
+    private int mAnimFirstLineTextSize;
+    private int mAnimSecondLineTextSize;
+    /** 直接绘制模式下不为null, @see #setDirectDraw(boolean) */
+    private CallerInfoRenderer mRenderer;
+    /** @see #setSnapshotEnabled(boolean) */
+    private boolean mSnapshotEnabled;
+    /** 打开快照模式前的layer type, 关闭时恢复 */
+    private int mLayerTypeBeforeSnapshot = LAYER_TYPE_NONE;
+    /** 见{@link #prefetch(String, String, String, String, int, Call)} */
+    private CallerInfoPrefetcher mPrefetcher;
+    /** 每次buildText()加1, 异步结果与之不一致时说明已过期, 丢弃 */
+    private volatile int mBuildGeneration;
+
+    /** beginUpdate()嵌套层数 */
+    private int mUpdateDepth;
+    /** 有尚未buildText()的设置 */
+    private boolean mBuildPending;
+    /** 归属地变化后尚未记录到LocationPrefixCache, 到buildText()时号码和归属地都已确定再记录 */
+    private boolean mLocationChanged;
+    /** @see #setAutoBatchUpdate(boolean) */
+    private boolean mAutoBatchUpdate;
+
+    /** 固定在主线程, 异步inflate的view也在主线程buildText()和setText() */
+    private final Handler mHandler = new Handler(Looper.getMainLooper(), new Handler.Callback() {
+        @Override
+        public boolean handleMessage(Message msg) {
+            switch (msg.what) {
+                case MSG_BUILD_TEXT:
+                    if (mBuildPending) {
+                        buildDirtyLines();
+                    }
+                    return true;
+                case MSG_APPLY_ASYNC_BUILD:
+                    AsyncBuild build = (AsyncBuild) msg.obj;
+                    if (build.generation == mBuildGeneration) {
+                        applyAsyncBuild(build);
+                    } else {
+                        CallerInfoEventRecorder.record(CallerInfoEventRecorder.EVENT_DROP_ASYNC,
+                                CallerInfoView.this, build.generation, mBuildGeneration, 0);
+                    }
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    });
+
+    private final CallerInfoEllipsizer mEllipsizer = new CallerInfoEllipsizer();
+
+    /** 当前配置下的尺寸, 所有实例共用, 配置变化时更新 */
+    private CallerInfoMetrics mMetrics;
+
+    // buildText()中复用的对象, 仅在输入(字体大小, 颜色, margin等)变化时重新创建, 避免来电动画期间GC
+    private String mFirstLineFamily;
+    private Typeface mFirstLineTypeface;
+    private String mSecondLineFamily;
+    private Typeface mSecondLineTypeface;
+    private TextAppearanceSpan mFirstLineSpan;
+    /** 第一行颜色, 见{@link #getFirstLineColor(boolean)} */
+    private final CallerInfoColorSpan mFirstLineColorSpan = new CallerInfoColorSpan(null);
+    private int mFirstLineSpanSize;
+    private TextAppearanceSpan mSecondLineSpan;
+    private ColorStateList mSecondLineSpanColor;
+    private int mSecondLineSpanSize;
+    /** 扩展标签, 见{@link #getExtraIconSpan()} */
+    private TopPaddingImageSpan mExtraIconSpan;
+    /** 扩展标签显示用的Drawable, 颜色变化时换成另一个预绘制的标签 */
+    private final ExtraIconBadgeCache.BadgeDrawable mExtraIconDrawable =
+            new ExtraIconBadgeCache.BadgeDrawable();
+    private int mExtraIconTopMarginCache;
+    private int mExtraIconLeftMarginCache;
+    /** 预绘制的扩展标签, 见{@link #getExtraIconBadge()} */
+    private ExtraIconBadgeCache.Badge mExtraIconBadge;
+    private String mExtraIconBadgeText;
+    private boolean mExtraIconBadgeCustomColors;
+    private int mExtraIconBadgeColor;
+    private int mExtraIconBadgeBgColor;
+    private Typeface mExtraIconBadgeTypeface;
+    private CallerInfoMetrics mExtraIconMetrics;
+    /** 卡图标 */
+    private TopPaddingImageSpan mSimSpan;
+    private Drawable mSimSpanDrawable;
+    private int mSimSpanTopMargin;
+    private int mSimSpanLeftMargin;
+    /** 拼接两行的完整文字 */
+    private final StringBuilder mComposeBuffer = new StringBuilder();
+
     public CallerInfoView(Context context) {
         super(context);
         init(null);
@@ -112,10 +283,13 @@ public abstract class CallerInfoView extends TextView {
     }
 
     protected void init(AttributeSet attrs) {
+        setSpannableFactory(SPANNABLE_FACTORY);
+        SimIndicatorCache.registerReceiver(getContext());
         Resources res = getContext().getResources();
+        mMetrics = CallerInfoMetrics.get(res);
 
-        final int defFirstLineTextSize = res.getDimensionPixelSize(R.dimen.text_size_big);
-        final int defSecondLineTextSize = res.getDimensionPixelSize(R.dimen.text_size_secondary);
+        final int defFirstLineTextSize = mMetrics.firstLineTextSize;
+        final int defSecondLineTextSize = mMetrics.secondLineTextSize;
         mFirstLineTextSize = defFirstLineTextSize;
         mSecondLineTextSize = defSecondLineTextSize;
         // if (attrs == null) {
@@ -134,28 +308,32 @@ public abstract class CallerInfoView extends TextView {
     }
 
     public void setInfos(String name, String number, String location, int slotId) {
-        boolean infoChanged = false;
+        int changedFields = 0;
+        int changedData = 0;
         if (!isSame(name, mName)) {
-            infoChanged = true;
+            changedFields |= CallerInfoEventRecorder.FIELD_NAME;
+            changedData |= DATA_NAME;
             mName = name;
         }
         if (!isSame(number, mNumber)) {
-            infoChanged = true;
+            changedFields |= CallerInfoEventRecorder.FIELD_NUMBER;
+            changedData |= DATA_NUMBER;
             mNumber = number;
         }
         if (!isSame(location, mLocation)) {
-            infoChanged = true;
+            changedFields |= CallerInfoEventRecorder.FIELD_LOCATION;
+            changedData |= DATA_LOCATION;
             mLocation = location;
+            mLocationChanged = true;
         }
-        if (mSlotId != slotId) {
-            updateSimIndicator(slotId);
-            infoChanged |= mSimIndicator != null;
+        if (updateSimIndicator(slotId)) {
+            changedFields |= CallerInfoEventRecorder.FIELD_SLOT;
+            changedData |= DATA_SLOT;
         }
 
-        if (infoChanged) {
-            log("setInfos name:" + name + ", number:" + number
-                    + ", location:" + location + ", slot:" + slotId);
-            buildText();
+        if (changedFields != 0) {
+            onInfosChanged(changedFields, changedData, slotId);
+            requestBuildText();
         }
     }
 
@@ -167,48 +345,72 @@ public abstract class CallerInfoView extends TextView {
      * @param slotId  卡槽
      */
     public void setInfos(String name, String number, String location, String label, int slotId) {
-        log(new StringBuilder("setInfos (").append(name).append(", ").append(number).append(", ")
-                .append(location).append(", ").append(label).append(")").toString());
-
-        boolean infoChanged = false;
+        int changedFields = 0;
+        int changedData = 0;
         if (!isSame(name, mName)) {
-            infoChanged = true;
+            changedFields |= CallerInfoEventRecorder.FIELD_NAME;
+            changedData |= DATA_NAME;
             mName = name;
         }
         if (!isSame(number, mNumber)) {
-            infoChanged = true;
+            changedFields |= CallerInfoEventRecorder.FIELD_NUMBER;
+            changedData |= DATA_NUMBER;
             mNumber = number;
         }
         if (!isSame(location, mLocation)) {
-            infoChanged = true;
+            changedFields |= CallerInfoEventRecorder.FIELD_LOCATION;
+            changedData |= DATA_LOCATION;
             mLocation = location;
+            mLocationChanged = true;
         }
         if (!isSame(label, mCallerLabel)) {
-            infoChanged = true;
+            changedFields |= CallerInfoEventRecorder.FIELD_LABEL;
+            changedData |= DATA_LABEL;
             mCallerLabel = label;
         }
-        if (mSlotId != slotId) {
-            mSlotId = slotId;
-            if (SimSlotIndicatorHelper.okToShowSimSlotIndicator()) {
-                infoChanged = true;
-                mSimIndicator = SimSlotIndicatorHelper.getSimIndicatorDrawable(mSlotId);
-                if (mSimIndicator != null) {
-                    mSimIndicator.setBounds(0, 0, mSimIndicator.getIntrinsicWidth(),
-                            mSimIndicator.getIntrinsicHeight());
-                }
-            } else {
-                mSimIndicator = null;
-            }
+        if (updateSimIndicator(slotId)) {
+            changedFields |= CallerInfoEventRecorder.FIELD_SLOT;
+            changedData |= DATA_SLOT;
+        }
+        if (changedFields != 0) {
+            onInfosChanged(changedFields, changedData, slotId);
+            requestBuildText();
         }
-        if (infoChanged) {
-            log("setInfos name:" + name + ", number:" + number + ", label:" + mCallerLabel
-                    + ", location:" + location + ", slot:" + slotId);
-            buildText();
+    }
+
+    /** 标记需重新生成文案的行并记录setInfos(), 不拼接字符串; 打开DBG_CIV时另外输出log */
+    private void onInfosChanged(int changedFields, int changedData, int slotId) {
+        markLinesDirty(changedData);
+        CallerInfoEventRecorder.record(CallerInfoEventRecorder.EVENT_SET_INFOS, this,
+                changedFields, slotId,
+                31 * CallerInfoEventRecorder.hash(mName) + CallerInfoEventRecorder.hash(mNumber));
+        if (DbgUtils.DBG_CIV) {
+            log("setInfos name:" + mName + ", number:" + mNumber + ", label:" + mCallerLabel
+                    + ", location:" + mLocation + ", slot:" + slotId);
+        }
+    }
+
+    /**
+     * 标记需重新生成文案的行并记录单个字段的变化
+     * @param data 变化的DATA_*, 不影响文案时为0
+     */
+    private void onFieldChanged(int field, int data, int value) {
+        markLinesDirty(data);
+        CallerInfoEventRecorder.record(CallerInfoEventRecorder.EVENT_SET_FIELD, this,
+                field, value, 0);
+    }
+
+    private void markLinesDirty(int changedData) {
+        if ((changedData & getFirstLineDependencies()) != 0) {
+            mFirstLine.dirty = true;
+        }
+        if ((changedData & getSecondLineDependencies()) != 0) {
+            mSecondLine.dirty = true;
         }
     }
 
     /**
-     * Call #invalidateCallerInfoView() after setting all values
+     * 同时设置多项时, 在{@link #beginUpdate()}和{@link #commitUpdate()}之间调用
      * @param name 姓名
      */
     public void setName(String name) {
@@ -217,11 +419,13 @@ public abstract class CallerInfoView extends TextView {
         }
 
         mName = name;
-        buildText();
+        onFieldChanged(CallerInfoEventRecorder.FIELD_NAME, DATA_NAME,
+                CallerInfoEventRecorder.hash(name));
+        requestBuildText();
     }
 
     /**
-     * Call #invalidateCallerInfoView() after setting all values
+     * 同时设置多项时, 在{@link #beginUpdate()}和{@link #commitUpdate()}之间调用
      * @param number 号码
      */
     public void setNumber(String number) {
@@ -230,7 +434,9 @@ public abstract class CallerInfoView extends TextView {
         }
 
         mNumber = number;
-        buildText();
+        onFieldChanged(CallerInfoEventRecorder.FIELD_NUMBER, DATA_NUMBER,
+                CallerInfoEventRecorder.hash(number));
+        requestBuildText();
     }
 
     /** 备注、标签信息 */
@@ -240,11 +446,14 @@ public abstract class CallerInfoView extends TextView {
         }
 
         mCallerLabel = label;
-        buildText();
+        onFieldChanged(CallerInfoEventRecorder.FIELD_LABEL, DATA_LABEL,
+                CallerInfoEventRecorder.hash(label));
+        requestBuildText();
     }
 
     /**
-     * Call #invalidateCallerInfoView() after setting all values
+     * 同时设置多项时, 在{@link #beginUpdate()}和{@link #commitUpdate()}之间调用。
+     * 归属地按buildText()时的号码记录到号段缓存, 号码和归属地都变化时需在同一次批量更新中设置
      * @param location 归属地
      */
     public void setLocation(String location) {
@@ -253,7 +462,10 @@ public abstract class CallerInfoView extends TextView {
         }
 
         mLocation = location;
-        buildText();
+        mLocationChanged = true;
+        onFieldChanged(CallerInfoEventRecorder.FIELD_LOCATION, DATA_LOCATION,
+                CallerInfoEventRecorder.hash(location));
+        requestBuildText();
     }
 
     // FLYME:zhulanting@Incallui: [#691642, 2018/1/15] {@
@@ -263,7 +475,9 @@ public abstract class CallerInfoView extends TextView {
         }
 
         mVideoCallDialingStatus = callStateLabel;
-        buildText();
+        onFieldChanged(CallerInfoEventRecorder.FIELD_VIDEO_STATUS, DATA_VIDEO_STATUS,
+                CallerInfoEventRecorder.hash(callStateLabel));
+        requestBuildText();
     }
     // @}
 
@@ -272,26 +486,39 @@ public abstract class CallerInfoView extends TextView {
      * @param slot
      */
     public void setSimIndicator(int slotId) {
-        if (mSlotId != slotId) {
-            updateSimIndicator(slotId);
-            if (mSimIndicator != null) {
-                buildText();
-            }
+        if (updateSimIndicator(slotId)) {
+            onFieldChanged(CallerInfoEventRecorder.FIELD_SLOT, DATA_SLOT, slotId);
+            requestBuildText();
         }
     }
-    private void updateSimIndicator(int slotId) {
-        if (mSlotId != slotId) {
-            mSlotId = slotId;
-            if (SimSlotIndicatorHelper.okToShowSimSlotIndicator()) {
-                mSimIndicator = SimSlotIndicatorHelper.getSimIndicatorDrawable(mSlotId);
-                if (mSimIndicator != null) {
-                    mSimIndicator.setBounds(0, 0, mSimIndicator.getIntrinsicWidth(),
-                            mSimIndicator.getIntrinsicHeight());
-                }
-            } else {
-                mSimIndicator = null;
-            }
+
+    /**
+     * 从共用的缓存中取卡图标
+     * @return 显示的卡图标有变化
+     */
+    private boolean updateSimIndicator(int slotId) {
+        final int generation = SimIndicatorCache.generation();
+        if (mSlotId == slotId && mSimGeneration == generation) {
+            return false;
         }
+        mSlotId = slotId;
+        mSimGeneration = generation;
+        final SimIndicatorCache.Entry entry = SimIndicatorCache.get(getResources(), slotId);
+        if (entry == mSimEntry) {
+            return false;
+        }
+        mSimEntry = entry;
+        mSimIndicator = entry.newDrawable(getResources());
+        mSimIconWidth = entry.width;
+        return true;
+    }
+
+    /**
+     * 清空共用的卡图标缓存, 之后设置的卡槽重新读取卡图标。
+     * 注册的SIM_STATE_CHANGED广播会自动调用, 其它会改变卡图标的场景(如切换主题)需手动调用
+     */
+    public static void onSimStateChanged() {
+        SimIndicatorCache.invalidate();
     }
 
     /** 扩展标签：网络电话/专线电话标识 */
@@ -302,162 +529,884 @@ public abstract class CallerInfoView extends TextView {
         }
 
         mExtraIconText = text;
+        onFieldChanged(CallerInfoEventRecorder.FIELD_EXTRA_ICON, DATA_EXTRA_ICON,
+                CallerInfoEventRecorder.hash(text));
         if (refresh) { // 此方法通常都在setInfos()之前调用, setInfos()中会buildText
-            buildText();
+            requestBuildText();
         }
     }
 
     /** 扩展标签文字颜色 */
     public void setExtraIconColor(int color) {
-        if (mExtraIconColor == color) {
+        if (mExtraIconCustomColors && mExtraIconColor == color) {
             return;
         }
 
+        mExtraIconCustomColors = true;
         mExtraIconColor = color;
-        buildText();
+        onFieldChanged(CallerInfoEventRecorder.FIELD_EXTRA_ICON_COLOR, 0, color);
+        updateStyle();
     }
 
-    /** 用于动画过程中，更新字体大小： 即刻刷新view */
+    /**
+     * 用于动画过程中，更新字体大小： 即刻刷新view。
+     * 在{@link #startTextSizeAnimation(int, int)}和{@link #endTextSizeAnimation()}之间只缩放绘制, 不重新buildText()
+     */
     public void setFirstLineTextSize(int firstLineTextSize) {
+        if (mTextSizeAnimating) {
+            if (mAnimFirstLineTextSize != firstLineTextSize) {
+                mAnimFirstLineTextSize = firstLineTextSize;
+                invalidate();
+            }
+            return;
+        }
         if (mFirstLineTextSize == firstLineTextSize) {
             return;
         }
         mFirstLineTextSize = firstLineTextSize;
-        buildText();
+        onFieldChanged(CallerInfoEventRecorder.FIELD_TEXT_SIZE, 0, firstLineTextSize);
+        requestBuildText(true);
     }
 
-    /** 用于动画过程中，更新字体大小： 即刻刷新view */
+    /**
+     * 用于动画过程中，更新字体大小： 即刻刷新view。
+     * 在{@link #startTextSizeAnimation(int, int)}和{@link #endTextSizeAnimation()}之间只缩放绘制, 不重新buildText()
+     */
     public void setSecondLineTextSize(int secondLineTextSize) {
+        if (mTextSizeAnimating) {
+            if (mAnimSecondLineTextSize != secondLineTextSize) {
+                mAnimSecondLineTextSize = secondLineTextSize;
+                invalidate();
+            }
+            return;
+        }
         if (mSecondLineTextSize == secondLineTextSize) {
             return;
         }
         mSecondLineTextSize = secondLineTextSize;
-        buildText();
+        onFieldChanged(CallerInfoEventRecorder.FIELD_TEXT_SIZE, 0, secondLineTextSize);
+        requestBuildText(true);
+    }
+
+    /**
+     * 开始字体大小动画(通话界面展开/收起): 以起止字体中较大的一个排版一次, 动画过程中
+     * setFirstLineTextSize()/setSecondLineTextSize()只按比例缩放绘制, 不重新measure和设置span。
+     * 动画过程中view的宽高保持为较大字体时的宽高。
+     * <p>
+     * 两行分别缩放, 以gravity对应的位置为缩放中心。直接绘制模式({@link #setDirectDraw(boolean)})下由
+     * CallerInfoRenderer缩放绘制, TextView模式下逐行缩放绘制已排版好的Layout, 见drawScaledLayout()。
+     * </p>
+     * @param toFirstLineTextSize 动画结束时第一行字体大小
+     * @param toSecondLineTextSize 动画结束时第二行字体大小
+     */
+    public void startTextSizeAnimation(int toFirstLineTextSize, int toSecondLineTextSize) {
+        if (mTextSizeAnimating) {
+            endTextSizeAnimation();
+        }
+        mAnimFirstLineTextSize = mFirstLineTextSize;
+        mAnimSecondLineTextSize = mSecondLineTextSize;
+        mFirstLineTextSize = Math.max(mFirstLineTextSize, toFirstLineTextSize);
+        mSecondLineTextSize = Math.max(mSecondLineTextSize, toSecondLineTextSize);
+        mTextSizeAnimating = true;
+        buildDirtyLines();
+    }
+
+    /** 结束字体大小动画, 以最后设置的字体大小重新排版 */
+    public void endTextSizeAnimation() {
+        if (!mTextSizeAnimating) {
+            return;
+        }
+        mTextSizeAnimating = false;
+        mFirstLineTextSize = mAnimFirstLineTextSize;
+        mSecondLineTextSize = mAnimSecondLineTextSize;
+        buildDirtyLines();
     }
 
     public void setTextSizeToDefault() {
-        final int defFirstLineTextSize = getContext().getResources()
-                .getDimensionPixelSize(R.dimen.text_size_big);
-        final int defSecondLineTextSize = getContext().getResources()
-                .getDimensionPixelSize(R.dimen.text_size_secondary);
-        mFirstLineTextSize = defFirstLineTextSize;
-        mSecondLineTextSize = defSecondLineTextSize;
-        buildText();
+        mTextSizeAnimating = false;
+        mFirstLineTextSize = mMetrics.firstLineTextSize;
+        mSecondLineTextSize = mMetrics.secondLineTextSize;
+        requestBuildText();
     }
 
     /** 扩展标签背景颜色 */
     public void setExtraIconBgColor(int color) {
-        if (mExtraIconBgColor == color) {
+        if (mExtraIconCustomColors && mExtraIconBgColor == color) {
             return;
         }
 
+        mExtraIconCustomColors = true;
         mExtraIconBgColor = color;
-        buildText();
+        onFieldChanged(CallerInfoEventRecorder.FIELD_EXTRA_ICON_BG_COLOR, 0, color);
+        updateStyle();
+    }
+
+    @Override
+    protected void onConfigurationChanged(Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+        // 字体缩放, density变化后尺寸和宽度都会变化, 缓存的省略结果不再有效
+        CallerInfoDisplayTextCache.onConfigurationChanged(newConfig);
+        final CallerInfoMetrics oldMetrics = mMetrics;
+        mMetrics = CallerInfoMetrics.get(getResources());
+        if (mMetrics == oldMetrics) {
+            return;
+        }
+        // 使用默认文字大小时换成新配置下的大小, 调用方设置过的大小不变
+        if (mFirstLineTextSize == oldMetrics.firstLineTextSize) {
+            mFirstLineTextSize = mMetrics.firstLineTextSize;
+        }
+        if (mSecondLineTextSize == oldMetrics.secondLineTextSize) {
+            mSecondLineTextSize = mMetrics.secondLineTextSize;
+        }
+        requestBuildText();
+    }
+
+    /**
+     * 预先加载CallerInfoView用到的资源: 尺寸, 字体, 字宽表, 卡图标, 扩展标签, 并完成一次省略计算,
+     * 避免第一次来电时在UI线程上加载。InCallUI进程启动后调用, 在后台线程执行, 可在任意线程调用。
+     * 卡图标只读取图片, 在主线程执行, 不判断是否显示。省略结果不放入共用缓存。
+     * 耗时和第一次buildText()的耗时见{@link #dumpRenderStats()}。
+     */
+    public static void warmUp(Context context) {
+        final Resources res = context.getApplicationContext().getResources();
+        // SimIndicatorCache只在主线程使用
+        new Handler(Looper.getMainLooper()).post(new Runnable() {
+            @Override
+            public void run() {
+                SimIndicatorCache.preload(res, 0);
+                SimIndicatorCache.preload(res, 1);
+            }
+        });
+        // 在sBuildExecutor中执行, 同时创建好异步计算的线程
+        sBuildExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                warmUpNow(res);
+            }
+        });
+    }
+
+    /** 在sBuildExecutor中执行, 可使用sAsyncEllipsizer */
+    private static void warmUpNow(Resources res) {
+        final long start = System.nanoTime();
+        final CallerInfoMetrics metrics = CallerInfoMetrics.get(res);
+        final Typeface firstLineTypeface = Typeface.create(InCallTypeface.getMediumTypeface(),
+                Typeface.NORMAL);
+        final Typeface secondLineTypeface = Typeface.create(InCallTypeface.getDefaultTypeface(),
+                Typeface.NORMAL);
+        final int[] badges = {R.string.text_callback, R.string.web_call_tag};
+        for (int id : badges) {
+            ExtraIconBadgeCache.get(res, res.getString(id), secondLineTypeface,
+                    metrics.extraIconTextSize, metrics.extraIconPaddingHorizontal,
+                    metrics.extraIconPaddingVertical, metrics.extraIconBgRectRadius);
+        }
+        // 最大宽度为1时一定省略, 走完整的measure流程并填充号码的字宽表, 结果没有用, 不放入缓存
+        sAsyncEllipsizer.ellipsize(WARM_UP_TEXT, metrics.firstLineTextSize,
+                firstLineTypeface, 0, 1);
+        sAsyncEllipsizer.ellipsize(WARM_UP_TEXT, metrics.secondLineTextSize,
+                secondLineTypeface, 0, 1);
+        CallerInfoStats.setWarmUpNanos(System.nanoTime() - start);
+    }
+
+    /** 字体(InCallTypeface)变化时调用, 清空所有CallerInfoView共用的省略结果缓存 */
+    public static void invalidateDisplayTextCache() {
+        CallerInfoDisplayTextCache.invalidate();
+        GlyphCacheTextMeasurer.invalidate();
+        ExtraIconBadgeCache.invalidate();
+        CallerInfoLine.invalidateAll();
+    }
+
+    /**
+     * 同步查询号码所在号段的归属地, 来自之前设置给任意CallerInfoView的归属地, 不分配对象。
+     * 有结果时可直接作为location调用一次{@link #setInfos}, 不用等归属地查询结果再更新一次。
+     * @return 没有记录或无法判断号段时返回null
+     */
+    public static String getCachedLocation(String number) {
+        return LocationPrefixCache.get(number);
+    }
+
+    /** 归属地数据更新后调用, 清空按号段记录的归属地 */
+    public static void clearLocationCache() {
+        LocationPrefixCache.clear();
+    }
+
+    /** 省略结果缓存命中情况, 用于dump */
+    public static String dumpDisplayTextCache() {
+        return CallerInfoDisplayTextCache.dump();
+    }
+
+    /** 打开/关闭显示内容计算的统计, 默认随DbgUtils.DBG_CIV打开 */
+    public static void setRenderStatsEnabled(boolean enabled) {
+        CallerInfoStats.setEnabled(enabled);
+    }
+
+    /** buildText()次数, 各阶段耗时分布等统计, 用于dump */
+    public static String dumpRenderStats() {
+        return CallerInfoStats.dump();
+    }
+
+    public static void resetRenderStats() {
+        CallerInfoStats.reset();
+    }
+
+    /** 最近的CallerInfoView变化记录, 用于问题分析 */
+    public static String dumpEvents() {
+        return CallerInfoEventRecorder.dump();
     }
 
     /** 隐藏文字区域 */
     public void hideText() {
+        mBuildGeneration++;
+        clearDisplayText();
+    }
+
+    private void clearDisplayText() {
+        CallerInfoEventRecorder.record(CallerInfoEventRecorder.EVENT_CLEAR, this, 0, 0, 0);
+        mAppliedFingerprint.clear();
+        if (mRenderer != null && mRenderer.getHeight() > 0) {
+            mRenderer.clear();
+            requestLayout();
+            invalidate();
+        }
         if (!TextUtils.isEmpty(getText())) {
             setText("");
         }
     }
 
-    /** 显示文字区域 */
+    /**
+     * 开始批量更新: 之后的set***()只记录数据, 到{@link #commitUpdate()}时只buildText()一次。
+     * 可嵌套, 与commitUpdate()成对调用。
+     */
+    public void beginUpdate() {
+        mUpdateDepth++;
+    }
+
+    /** 结束批量更新, 期间数据有变化时buildText() */
+    public void commitUpdate() {
+        if (mUpdateDepth == 0) {
+            return;
+        }
+        if (--mUpdateDepth == 0 && mBuildPending) {
+            buildDirtyLines();
+        }
+    }
+
+    /**
+     * 自动合并更新: 打开后set***()不再即刻buildText(), 而是通过Handler在下一个消息中统一buildText(),
+     * 同一帧内的多次设置只刷新一次。
+     */
+    public void setAutoBatchUpdate(boolean autoBatch) {
+        mAutoBatchUpdate = autoBatch;
+        if (!autoBatch) {
+            invalidateCallerInfoView();
+        }
+    }
+
+    /** 立即刷新尚未生效的设置(自动合并更新或批量更新中) */
+    public void invalidateCallerInfoView() {
+        if (mBuildPending) {
+            buildDirtyLines();
+        }
+    }
+
+    private void requestBuildText() {
+        requestBuildText(false);
+    }
+
+    /**
+     * @param immediate 不处于批量更新中时即刻刷新, 不等待自动合并(如动画中更新字体大小)
+     */
+    private void requestBuildText(boolean immediate) {
+        if (mUpdateDepth > 0) {
+            mBuildPending = true;
+        } else if (mAutoBatchUpdate && !immediate) {
+            postBuildText();
+        } else {
+            buildDirtyLines();
+        }
+    }
+
+    /** 在下一个消息中buildText(), 之前的多次请求只刷新一次 */
+    private void postBuildText() {
+        mBuildPending = true;
+        if (!mHandler.hasMessages(MSG_BUILD_TEXT)) {
+            mHandler.sendEmptyMessage(MSG_BUILD_TEXT);
+        }
+    }
+
+    /**
+     * 异步计算显示内容: 打开后buildText()在后台线程measure和省略, 只有最后的setText()在UI线程。
+     * 异步计算期间再次buildText()时, 前一次的结果会被丢弃。
+     * <p>
+     * 异步计算不调用getFirstLineDisplayText()/getSecondaryDisplayText(), 覆盖了这两个方法的子类不要打开。
+     * </p>
+     */
+    public void setAsyncBuild(boolean async) {
+        mAsyncBuild = async;
+    }
+
+    /**
+     * 显示文字区域: 重新生成两行文案。
+     * 子类直接修改mName等字段, 或getFirstLineText()/getSecondLineText()依赖其它数据时调用
+     */
     public void buildText() {
-        String firstLineText = getFirstLineText();
+        mFirstLine.dirty = true;
+        mSecondLine.dirty = true;
+        buildDirtyLines();
+    }
+
+    /** 只重新生成标记了dirty的行的文案, 省略结果和span在输入不变时复用 */
+    private void buildDirtyLines() {
+        final long coldStart = CallerInfoStats.beginFirstBuild();
+        mBuildPending = false;
+        mHandler.removeMessages(MSG_BUILD_TEXT);
+        final int generation = ++mBuildGeneration;
+        if (mLocationChanged) {
+            mLocationChanged = false;
+            LocationPrefixCache.put(mNumber, mLocation);
+        }
+
+        long start = CallerInfoStats.begin();
+        if (mFirstLine.dirty) {
+            mFirstLine.setText(getFirstLineText());
+        }
+        final String firstLineText = mFirstLine.text;
         if (TextUtils.isEmpty(firstLineText)) {
-            if (!TextUtils.isEmpty(getText())) {
-                setText("");
-            }
+            clearDisplayText();
             return;
         }
         log("buildText");
 
-        String secondLineText = getSecondLineText();
+        if (mSecondLine.dirty) {
+            final String text = getSecondLineText();
+            mSecondLine.setText(TextUtils.isEmpty(text) ? null : text);
+        }
+        final String secondLineText = mSecondLine.text;
+
+        final Typeface firstLineTypeface = getFirstLineTypeface();
+        final Typeface secondLineTypeface = getSecondLineTypeface();
+        final int firstLineExtraWidth = getExtraIconWidth() + getSimIconWidth();
+        final int maxWidth = getMaxDisplayWidth();
+        final boolean firstLineValid = mFirstLine.isDisplayTextValid(mFirstLineTextSize,
+                firstLineTypeface, firstLineExtraWidth, maxWidth);
+        final boolean secondLineValid = secondLineText == null
+                || mSecondLine.isDisplayTextValid(mSecondLineTextSize, secondLineTypeface, 0,
+                        maxWidth);
+        CallerInfoStats.end(CallerInfoStats.STAGE_LINE_TEXT, start);
+        CallerInfoEventRecorder.record(CallerInfoEventRecorder.EVENT_BUILD, this, generation,
+                mAsyncBuild ? 1 : 0, (firstLineValid ? 0 : 1) | (secondLineValid ? 0 : 2));
+
+        if (mAsyncBuild && !(firstLineValid && secondLineValid)) {
+            sBuildExecutor.execute(new AsyncBuild(this, generation,
+                    firstLineText, mFirstLineTextSize, firstLineTypeface, firstLineExtraWidth,
+                    firstLineValid ? mFirstLine.displayText : null,
+                    secondLineText, mSecondLineTextSize, secondLineTypeface,
+                    secondLineValid ? mSecondLine.displayText : null,
+                    maxWidth));
+            return;
+        }
 
-        SpannableString lineOne = new SpannableString(getFirstLineDisplayText(firstLineText));
-        SpannableString lineTwo = TextUtils.isEmpty(secondLineText) ? null
-                : new SpannableString(getSecondaryDisplayText(secondLineText));
-        lineOne.setSpan(getFirstLineTextSpan(mHighLightName), 0,
-                lineOne.length(), Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
-        // 设置第一行显示内容
-        setText(lineOne);
+        start = CallerInfoStats.begin();
+        if (!firstLineValid) {
+            mFirstLine.setDisplayText(getFirstLineDisplayText(firstLineText), firstLineText,
+                    mFirstLineTextSize, firstLineTypeface, firstLineExtraWidth, maxWidth);
+        }
+        if (!secondLineValid) {
+            mSecondLine.setDisplayText(getSecondaryDisplayText(secondLineText), secondLineText,
+                    mSecondLineTextSize, secondLineTypeface, 0, maxWidth);
+        }
+        CallerInfoStats.end(CallerInfoStats.STAGE_ELLIPSIZE, start);
 
-        // 专线电话，网络电话标签icon
-        if (!TextUtils.isEmpty(mExtraIconText)) {
-            append(buildExtraIcon());
+        applyDisplayText(mFirstLine.displayText,
+                secondLineText == null ? null : mSecondLine.displayText);
+        CallerInfoStats.endFirstBuild(coldStart);
+    }
+
+    /** 异步计算的结果交回UI线程, 记录到两行的缓存后显示 */
+    private void applyAsyncBuild(AsyncBuild build) {
+        mFirstLine.setDisplayText(build.firstLineDisplayText, build.firstLineText,
+                build.firstLineTextSize, build.firstLineTypeface, build.firstLineExtraWidth,
+                build.maxWidth);
+        if (build.secondLineText != null) {
+            mSecondLine.setDisplayText(build.secondLineDisplayText, build.secondLineText,
+                    build.secondLineTextSize, build.secondLineTypeface, 0, build.maxWidth);
         }
+        applyDisplayText(build.firstLineDisplayText, build.secondLineDisplayText);
+    }
 
+    /** applyDisplayText()拼接的显示内容, 由TextView直接持有, 颜色变化时updateStyle()直接修改其中的span */
+    static final class ComposedText extends SpannableString {
+        ComposedText(CharSequence source) {
+            super(source);
+        }
+    }
+
+    /**
+     * 设置显示内容
+     * @param firstLineDisplayText 第一行省略后的文字
+     * @param secondLineDisplayText 第二行省略后的文字, null时不显示第二行
+     */
+    private void applyDisplayText(String firstLineDisplayText, String secondLineDisplayText) {
+        if (CallerInfoStats.isEnabled()) {
+            CallerInfoStats.countBuild(TextUtils.equals(firstLineDisplayText, mFirstLineDisplayText)
+                    && TextUtils.equals(secondLineDisplayText, mSecondLineDisplayText));
+        }
+        mFirstLineDisplayText = firstLineDisplayText;
+        mSecondLineDisplayText = secondLineDisplayText;
+
+        // 最终显示内容与当前相同时不再setText(), 避免重新排版
+        fillFingerprint(mNewFingerprint, firstLineDisplayText, secondLineDisplayText);
+        if (mNewFingerprint.equals(mAppliedFingerprint)) {
+            CallerInfoEventRecorder.record(CallerInfoEventRecorder.EVENT_SKIP, this,
+                    mBuildGeneration, 0, 0);
+            return;
+        }
+        CallerInfoEventRecorder.record(CallerInfoEventRecorder.EVENT_APPLY, this,
+                firstLineDisplayText.length(),
+                secondLineDisplayText == null ? -1 : secondLineDisplayText.length(),
+                CallerInfoEventRecorder.hash(firstLineDisplayText));
+        final CallerInfoFingerprint applied = mNewFingerprint;
+        mNewFingerprint = mAppliedFingerprint;
+        mAppliedFingerprint = applied;
+        if (applied.extraIconBadge != null) {
+            mExtraIconDrawable.setBadge(applied.extraIconBadge);
+        }
+
+        if (mRenderer != null) {
+            applyDisplayTextToRenderer(firstLineDisplayText, secondLineDisplayText);
+            return;
+        }
+
+        long start = CallerInfoStats.begin();
+        // 专线电话，网络电话标签icon
+        final TopPaddingImageSpan extraIconSpan = TextUtils.isEmpty(mExtraIconText)
+                ? null : getExtraIconSpan();
         // 显示卡图标
-        if (mSimIndicator != null) {
-            SpannableString simSpann = new SpannableString("slot");
-            simSpann.setSpan(new TopPaddingImageSpan(mSimIndicator,
-                    getSimIconTopMargin(), getExtraIconLeftMargin()),
-                    0, simSpann.length(), Spannable.SPAN_INCLUSIVE_EXCLUSIVE);
-            append(simSpann);
+        final TopPaddingImageSpan simSpan = mSimIndicator == null ? null : getSimSpan();
+
+        // 先拼接完整的文字, 再一次创建大小正好的SpannableString并设置所有span
+        final StringBuilder buffer = mComposeBuffer;
+        buffer.setLength(0);
+        buffer.append(firstLineDisplayText);
+        final int lineOneEnd = buffer.length();
+        if (extraIconSpan != null) {
+            buffer.append(mExtraIconText);
+        }
+        final int extraIconEnd = buffer.length();
+        if (simSpan != null) {
+            buffer.append(SIM_PLACEHOLDER);
+        }
+        final int simEnd = buffer.length();
+        if (secondLineDisplayText != null) {
+            buffer.append('\n').append(secondLineDisplayText);
+        }
+        final SpannableString text = new ComposedText(buffer);
+
+        // 第一行
+        text.setSpan(getFirstLineTextSpan(mHighLightName), 0, lineOneEnd,
+                Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+        // 颜色单独用一个span, 高亮变化时只修改它, 见updateStyle()
+        mFirstLineColorSpan.setColor(getFirstLineColor(mHighLightName));
+        text.setSpan(mFirstLineColorSpan, 0, lineOneEnd, Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+        if (extraIconSpan != null) {
+            text.setSpan(extraIconSpan, lineOneEnd, extraIconEnd,
+                    Spannable.SPAN_INCLUSIVE_EXCLUSIVE);
         }
+        if (simSpan != null) {
+            text.setSpan(simSpan, extraIconEnd, simEnd, Spannable.SPAN_INCLUSIVE_EXCLUSIVE);
+        }
+        // 第二行
+        if (secondLineDisplayText != null) {
+            text.setSpan(getSecondLineTextSpan(), simEnd + 1, text.length(),
+                    Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+        }
+        CallerInfoStats.end(CallerInfoStats.STAGE_SPAN_BUILD, start);
 
-        if (lineTwo != null) {
-            append("\n");
-            lineTwo.setSpan(
-                    new TextAppearanceSpan(InCallTypeface.getDefaultTypeface(),
-                            Typeface.NORMAL, mSecondLineTextSize,
-                            mNormalColor, mNormalColor),
-                    0, lineTwo.length(), Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
-            // 设置第二行显示内容
-            append(lineTwo);
+        start = CallerInfoStats.begin();
+        // 只setText()一次, 不再append(), 每次刷新只重新排版一次
+        setText(text, BufferType.SPANNABLE);
+        CallerInfoStats.end(CallerInfoStats.STAGE_SET_TEXT, start);
+    }
+
+    /**
+     * 只有颜色变化(高亮, 扩展标签颜色)时, 直接修改当前显示内容中的span并重绘, 不重新measure, 不新建span,
+     * 不重新排版。当前没有显示内容, 或处于批量更新中时按普通更新处理。
+     */
+    private void updateStyle() {
+        if (!mAppliedFingerprint.valid || mUpdateDepth > 0 || mBuildPending) {
+            requestBuildText();
+            return;
+        }
+        final ExtraIconBadgeCache.Badge badge = mAppliedFingerprint.extraIconText == null
+                ? null : getExtraIconBadge();
+        if (badge != mAppliedFingerprint.extraIconBadge && !mExtraIconDrawable.swapBadge(badge)) {
+            // 扩展标签是预绘制的图片, 颜色变化时换成另一个标签, 宽高不同时才需要重新排版
+            requestBuildText();
+            return;
+        }
+        CallerInfoEventRecorder.record(CallerInfoEventRecorder.EVENT_STYLE, this,
+                mHighLightName ? 1 : 0, mExtraIconColor, mExtraIconBgColor);
+        final ColorStateList firstLineColor = getFirstLineColor(mHighLightName);
+        if (mRenderer != null) {
+            final int[] state = getDrawableState();
+            mRenderer.setFirstLineColor(
+                    firstLineColor.getColorForState(state, firstLineColor.getDefaultColor()));
+            invalidate();
+        } else if (mFirstLineColorSpan.getColor() != firstLineColor) {
+            final CharSequence text = getText();
+            final int start = text instanceof Spannable
+                    ? ((Spannable) text).getSpanStart(mFirstLineColorSpan) : -1;
+            if (start < 0) {
+                requestBuildText();
+                return;
+            }
+            // 重新setSpan()通知TextView该span变化, UpdateAppearance的span只会重绘
+            final Spannable spannable = (Spannable) text;
+            final int end = spannable.getSpanEnd(mFirstLineColorSpan);
+            mFirstLineColorSpan.setColor(firstLineColor);
+            spannable.setSpan(mFirstLineColorSpan, start, end, Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+        }
+        if (badge != mAppliedFingerprint.extraIconBadge) {
+            invalidate();
+        }
+        mAppliedFingerprint.firstLineColor = firstLineColor;
+        mAppliedFingerprint.extraIconBadge = badge;
+    }
+
+    private void fillFingerprint(CallerInfoFingerprint fingerprint, String firstLineDisplayText,
+            String secondLineDisplayText) {
+        fingerprint.firstLineText = firstLineDisplayText;
+        fingerprint.secondLineText = secondLineDisplayText;
+        fingerprint.firstLineTypeface = getFirstLineTypeface();
+        fingerprint.secondLineTypeface = getSecondLineTypeface();
+        fingerprint.firstLineTextSize = mFirstLineTextSize;
+        fingerprint.secondLineTextSize = mSecondLineTextSize;
+        fingerprint.firstLineColor = getFirstLineColor(mHighLightName);
+        fingerprint.secondLineColor = mNormalColor;
+        fingerprint.extraIconText = TextUtils.isEmpty(mExtraIconText) ? null : mExtraIconText;
+        fingerprint.extraIconBadge = fingerprint.extraIconText == null ? null
+                : getExtraIconBadge();
+        fingerprint.simIndicator = mSimIndicator;
+        fingerprint.maxWidth = getMaxDisplayWidth();
+        fingerprint.metrics = mMetrics;
+        fingerprint.valid = true;
+    }
+
+    /** 直接绘制模式下设置显示内容, 宽高不变时只重绘, 不requestLayout() */
+    private void applyDisplayTextToRenderer(String firstLineDisplayText,
+            String secondLineDisplayText) {
+        final CallerInfoRenderer renderer = mRenderer;
+        final int oldWidth = renderer.getWidth();
+        final int oldHeight = renderer.getHeight();
+        final int[] state = getDrawableState();
+        final ColorStateList firstLineColor = getFirstLineColor(mHighLightName);
+        renderer.setFirstLine(firstLineDisplayText, getFirstLineTypeface(), mFirstLineTextSize,
+                firstLineColor.getColorForState(state, firstLineColor.getDefaultColor()));
+        renderer.setSecondLine(secondLineDisplayText, getSecondLineTypeface(),
+                mSecondLineTextSize,
+                mNormalColor.getColorForState(state, mNormalColor.getDefaultColor()));
+        renderer.setBadge(mAppliedFingerprint.extraIconBadge == null ? null : mExtraIconDrawable,
+                getExtraIconLeftMargin(), getExtraIconTopMargin());
+        renderer.setSimIndicator(mSimIndicator, getExtraIconLeftMargin(), getSimIconTopMargin());
+        renderer.layout();
+        if (renderer.getWidth() != oldWidth || renderer.getHeight() != oldHeight) {
+            requestLayout();
+        }
+        invalidate();
+    }
+
+    /**
+     * 直接绘制模式: 不经过TextView的Spannable和Layout, 由{@link CallerInfoRenderer}在onDraw()中绘制,
+     * 内容变化但宽高不变时不requestLayout()。默认关闭, 使用TextView显示。
+     */
+    public void setDirectDraw(boolean directDraw) {
+        if (directDraw == (mRenderer != null)) {
+            return;
+        }
+        if (mTextSizeAnimating) {
+            // 切换显示方式时结束动画, 以最后设置的字体大小排版
+            mTextSizeAnimating = false;
+            mFirstLineTextSize = mAnimFirstLineTextSize;
+            mSecondLineTextSize = mAnimSecondLineTextSize;
+        }
+        if (directDraw) {
+            mRenderer = new CallerInfoRenderer();
+            setText(null);
+        } else {
+            mRenderer = null;
+        }
+        mAppliedFingerprint.clear();
+        requestLayout();
+        buildDirtyLines();
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        final long start = CallerInfoStats.begin();
+        measureContent(widthMeasureSpec, heightMeasureSpec);
+        CallerInfoStats.end(CallerInfoStats.STAGE_MEASURE, start);
+    }
+
+    private void measureContent(int widthMeasureSpec, int heightMeasureSpec) {
+        if (mAutoMaxContentWidth) {
+            updateAutoMaxContentWidth(widthMeasureSpec);
+        }
+        if (mRenderer == null) {
+            super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+            return;
+        }
+        final int width = mRenderer.getWidth() + getPaddingLeft() + getPaddingRight();
+        final int height = mRenderer.getHeight() + getPaddingTop() + getPaddingBottom();
+        setMeasuredDimension(resolveSize(width, widthMeasureSpec),
+                resolveSize(height, heightMeasureSpec));
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        final long start = CallerInfoStats.begin();
+        drawContent(canvas);
+        CallerInfoStats.end(CallerInfoStats.STAGE_DRAW, start);
+    }
+
+    /**
+     * 快照模式: 父布局转场动画(卡片收起, 滑到悬浮窗, 会议展开)期间显示内容不变, 但每帧都会重绘。
+     * 打开后使用硬件layer, 显示内容只绘制一次到layer, 之后每帧直接合成, 不再逐个绘制span和卡图标。
+     * 任何invalidate()(显示内容, 颜色, padding, 滚动等变化)都会重新绘制layer, 不会显示旧内容。
+     * 转场结束后关闭, 恢复原来的layer type并释放layer。
+     */
+    public void setSnapshotEnabled(boolean enabled) {
+        if (mSnapshotEnabled == enabled) {
+            return;
+        }
+        mSnapshotEnabled = enabled;
+        if (enabled) {
+            mLayerTypeBeforeSnapshot = getLayerType();
+            setLayerType(LAYER_TYPE_HARDWARE, null);
+            if (isAttachedToWindow()) {
+                // 转场第一帧前绘制好layer
+                buildLayer();
+            }
+        } else {
+            setLayerType(mLayerTypeBeforeSnapshot, null);
         }
     }
 
+    private void drawContent(Canvas canvas) {
+        if (mRenderer == null) {
+            final Layout layout = getLayout();
+            if (mTextSizeAnimating && layout != null) {
+                drawScaledLayout(canvas, layout);
+            } else {
+                super.onDraw(canvas);
+            }
+            return;
+        }
+        // 与TextView一样按gravity水平对齐, START/END按布局方向解析
+        final boolean rtl = getLayoutDirection() == LAYOUT_DIRECTION_RTL;
+        final int horizontalGravity = Gravity.getAbsoluteGravity(getGravity(),
+                getLayoutDirection()) & Gravity.HORIZONTAL_GRAVITY_MASK;
+        final int availableWidth = getWidth() - getPaddingLeft() - getPaddingRight();
+        final int count = canvas.save();
+        canvas.translate(getPaddingLeft(), getPaddingTop());
+        if (mTextSizeAnimating) {
+            mRenderer.draw(canvas, availableWidth, horizontalGravity, rtl,
+                    (float) mAnimFirstLineTextSize / mFirstLineTextSize,
+                    (float) mAnimSecondLineTextSize / mSecondLineTextSize);
+        } else {
+            mRenderer.draw(canvas, availableWidth, horizontalGravity, rtl, 1f, 1f);
+        }
+        canvas.restoreToCount(count);
+    }
+
+    /**
+     * TextView模式下的字体大小动画: 逐行缩放绘制startTextSizeAnimation()时按较大字体排版的Layout,
+     * 第一行(包括标签和卡图标)和第二行按各自的比例, 以该行gravity对应的位置(左, 中, 右)为缩放中心,
+     * 每行紧接上一行缩放后的底部。不重新设置span和排版。
+     */
+    private void drawScaledLayout(Canvas canvas, Layout layout) {
+        final float firstLineScale = (float) mAnimFirstLineTextSize / mFirstLineTextSize;
+        final float secondLineScale = (float) mAnimSecondLineTextSize / mSecondLineTextSize;
+        final int horizontalGravity = Gravity.getAbsoluteGravity(getGravity(),
+                getLayoutDirection()) & Gravity.HORIZONTAL_GRAVITY_MASK;
+        // 第二行从'\n'之后开始, 第一行折行时也按第一行的比例缩放
+        final int secondLineStart = TextUtils.indexOf(getText(), '\n') + 1;
+        // 与TextView.onDraw()相同, 没有span的文字使用当前文字颜色
+        final TextPaint paint = getPaint();
+        paint.setColor(getCurrentTextColor());
+        paint.drawableState = getDrawableState();
+
+        canvas.save();
+        canvas.translate(getTotalPaddingLeft(), getTotalPaddingTop());
+        final int width = layout.getWidth();
+        float y = 0;
+        for (int line = 0; line < layout.getLineCount(); line++) {
+            final float scale = secondLineStart > 0 && layout.getLineStart(line) >= secondLineStart
+                    ? secondLineScale : firstLineScale;
+            final int top = layout.getLineTop(line);
+            final int bottom = layout.getLineBottom(line);
+            final float pivotX;
+            if (horizontalGravity == Gravity.RIGHT) {
+                pivotX = layout.getLineRight(line);
+            } else if (horizontalGravity == Gravity.CENTER_HORIZONTAL) {
+                pivotX = (layout.getLineLeft(line) + layout.getLineRight(line)) / 2;
+            } else {
+                pivotX = layout.getLineLeft(line);
+            }
+            canvas.save();
+            canvas.translate(pivotX, y);
+            canvas.scale(scale, scale);
+            canvas.translate(-pivotX, -top);
+            // Layout.draw()按clip只绘制这一行
+            canvas.clipRect(0, top, width, bottom);
+            layout.draw(canvas);
+            canvas.restore();
+            y += (bottom - top) * scale;
+        }
+        canvas.restore();
+    }
+
+    /** 直接绘制模式下TextView没有文字, 无障碍服务读取的内容与TextView显示时相同: 两行和扩展标签文字 */
+    @Override
+    public void onInitializeAccessibilityNodeInfo(AccessibilityNodeInfo info) {
+        super.onInitializeAccessibilityNodeInfo(info);
+        final CharSequence text = getDirectDrawAccessibilityText();
+        if (text != null) {
+            info.setText(text);
+        }
+    }
+
+    @Override
+    public void onPopulateAccessibilityEvent(AccessibilityEvent event) {
+        super.onPopulateAccessibilityEvent(event);
+        final CharSequence text = getDirectDrawAccessibilityText();
+        if (text != null) {
+            event.getText().add(text);
+        }
+    }
+
+    /** 只在无障碍服务查询时拼接, 不在每次更新内容时分配 */
+    private CharSequence getDirectDrawAccessibilityText() {
+        if (mRenderer == null || mRenderer.getFirstLineText() == null) {
+            return null;
+        }
+        final StringBuilder builder = new StringBuilder(mRenderer.getFirstLineText());
+        if (mAppliedFingerprint.extraIconBadge != null) {
+            builder.append(mAppliedFingerprint.extraIconText);
+        }
+        final String secondLine = mRenderer.getSecondLineText();
+        if (secondLine != null) {
+            builder.append('\n').append(secondLine);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 第一行的字体和大小, 字体大小不变时复用同一个span。
+     * 不含颜色: 第一行颜色只由{@link #getFirstLineColor(boolean)}决定, 这里返回的span带颜色也会被覆盖
+     */
     protected TextAppearanceSpan getFirstLineTextSpan(boolean highlight) {
-        ColorStateList color = highlight ? mHighLightColor : mNormalColor;
-        return new TextAppearanceSpan(InCallTypeface.getMediumTypeface(),
-                Typeface.NORMAL, mFirstLineTextSize, color, color);
-    }
-
-    /** ExtraIcon为文字加圆角矩形边框组成, @see RadiusBackgroundSpan */
-    private SpannableString buildExtraIcon() {
-        // 设置文字大小
-        SpannableString extraIcon = new SpannableString(mExtraIconText);
-        extraIcon.setSpan(new AbsoluteSizeSpan(getDimenPx(R.dimen.mz_callcard_extra_icon_text_size)),
-                0, mExtraIconText.length(), Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
-        // 设置字体
-        extraIcon = new SpannableString(extraIcon);
-        extraIcon.setSpan(new TypefaceSpan(InCallTypeface.getDefaultTypeface()),
-                0, extraIcon.length(), Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
-        extraIcon = new SpannableString(extraIcon);
-        RadiusBackgroundSpan radiusBackspan = new RadiusBackgroundSpan();
-        // 设置顶部margin
-        radiusBackspan.setTopMargin(getExtraIconTopMargin());
-        // 设置左边margin
-        radiusBackspan.setLeftMargin(getExtraIconLeftMargin());
-        // 设置上下左右padding
-        radiusBackspan.setPadding(getDimenPx(R.dimen.mz_callcard_extra_icon_padding_horizontal),
-                getDimenPx(R.dimen.mz_callcard_extra_icon_padding_vertical));
-        // 设置圆角矩形radius
-        radiusBackspan.setRadius(getDimenPx(R.dimen.mz_callcard_extra_icon_bg_rect_radius));
-        extraIcon.setSpan(radiusBackspan, 0, extraIcon.length(),
-                Spannable.SPAN_INCLUSIVE_EXCLUSIVE);
-        return extraIcon;
+        if (mFirstLineSpan == null || mFirstLineSpanSize != mFirstLineTextSize) {
+            mFirstLineSpan = new TextAppearanceSpan(InCallTypeface.getMediumTypeface(),
+                    Typeface.NORMAL, mFirstLineTextSize, null, null);
+            mFirstLineSpanSize = mFirstLineTextSize;
+        }
+        return mFirstLineSpan;
+    }
+
+    /**
+     * 第一行文字颜色, 默认为mHighLightColor/mNormalColor。高亮变化时updateStyle()用它只修改颜色,
+     * 不重新排版; 子类需要其它颜色时覆盖此方法
+     * @param highlight 是否高亮显示名字
+     */
+    protected ColorStateList getFirstLineColor(boolean highlight) {
+        return highlight ? mHighLightColor : mNormalColor;
+    }
+
+    private TextAppearanceSpan getSecondLineTextSpan() {
+        if (mSecondLineSpan == null || mSecondLineSpanColor != mNormalColor
+                || mSecondLineSpanSize != mSecondLineTextSize) {
+            mSecondLineSpan = new TextAppearanceSpan(InCallTypeface.getDefaultTypeface(),
+                    Typeface.NORMAL, mSecondLineTextSize, mNormalColor, mNormalColor);
+            mSecondLineSpanColor = mNormalColor;
+            mSecondLineSpanSize = mSecondLineTextSize;
+        }
+        return mSecondLineSpan;
+    }
+
+    private TopPaddingImageSpan getSimSpan() {
+        final int topMargin = getSimIconTopMargin();
+        final int leftMargin = getExtraIconLeftMargin();
+        if (mSimSpan == null || mSimSpanDrawable != mSimIndicator
+                || mSimSpanTopMargin != topMargin || mSimSpanLeftMargin != leftMargin) {
+            mSimSpan = new TopPaddingImageSpan(mSimIndicator, topMargin, leftMargin);
+            mSimSpanDrawable = mSimIndicator;
+            mSimSpanTopMargin = topMargin;
+            mSimSpanLeftMargin = leftMargin;
+        }
+        return mSimSpan;
+    }
+
+    /** ExtraIcon为预绘制的圆角矩形背景加文字, 作为一个ImageSpan插入, @see ExtraIconBadgeCache */
+    private TopPaddingImageSpan getExtraIconSpan() {
+        final int topMargin = getExtraIconTopMargin();
+        final int leftMargin = getExtraIconLeftMargin();
+        if (mExtraIconSpan == null
+                || mExtraIconTopMarginCache != topMargin || mExtraIconLeftMarginCache != leftMargin) {
+            mExtraIconSpan = new TopPaddingImageSpan(mExtraIconDrawable, topMargin, leftMargin);
+            mExtraIconTopMarginCache = topMargin;
+            mExtraIconLeftMarginCache = leftMargin;
+        }
+        return mExtraIconSpan;
+    }
+
+    /** 文字, 颜色, 尺寸都不变时直接返回上次的标签, 不查找共用缓存 */
+    private ExtraIconBadgeCache.Badge getExtraIconBadge() {
+        final Typeface typeface = getSecondLineTypeface();
+        if (mExtraIconBadge == null || !TextUtils.equals(mExtraIconBadgeText, mExtraIconText)
+                || mExtraIconBadgeCustomColors != mExtraIconCustomColors
+                || mExtraIconBadgeColor != mExtraIconColor
+                || mExtraIconBadgeBgColor != mExtraIconBgColor
+                || mExtraIconBadgeTypeface != typeface || mExtraIconMetrics != mMetrics) {
+            mExtraIconBadge = queryExtraIconBadge(mExtraIconText, typeface);
+            mExtraIconBadgeText = mExtraIconText;
+            mExtraIconBadgeCustomColors = mExtraIconCustomColors;
+            mExtraIconBadgeColor = mExtraIconColor;
+            mExtraIconBadgeBgColor = mExtraIconBgColor;
+            mExtraIconBadgeTypeface = typeface;
+            mExtraIconMetrics = mMetrics;
+        }
+        return mExtraIconBadge;
+    }
+
+    private ExtraIconBadgeCache.Badge queryExtraIconBadge(String text, Typeface typeface) {
+        if (mExtraIconCustomColors) {
+            return ExtraIconBadgeCache.get(getResources(), text, typeface,
+                    mMetrics.extraIconTextSize, mExtraIconColor, mExtraIconBgColor,
+                    mMetrics.extraIconPaddingHorizontal, mMetrics.extraIconPaddingVertical,
+                    mMetrics.extraIconBgRectRadius);
+        }
+        return ExtraIconBadgeCache.get(getResources(), text, typeface,
+                mMetrics.extraIconTextSize, mMetrics.extraIconPaddingHorizontal,
+                mMetrics.extraIconPaddingVertical, mMetrics.extraIconBgRectRadius);
     }
 
     protected int getSimIconTopMargin() {
-        return getDimenPx(R.dimen.mz_caller_info_sim_icon_margin_top);
+        return mMetrics.simIconMarginTop;
     }
 
     protected int getExtraIconTopMargin() {
-        return getDimenPx(R.dimen.mz_callcard_extra_icon_margin_top);
+        return mMetrics.extraIconMarginTop;
     }
 
     protected int getExtraIconLeftMargin() {
-        return getDimenPx(R.dimen.mz_callcard_extra_icon_margin_left);
+        return mMetrics.extraIconMarginLeft;
     }
 
     private int getSimIconWidth() {
         if (mSimIndicator == null) {
             return 0;
         }
-        return mSimIndicator.getIntrinsicWidth() + getExtraIconLeftMargin();
+        return mSimIconWidth + getExtraIconLeftMargin();
     }
 
     /** leftMargin + leftPading + textWidth + rightPadding*/
@@ -465,129 +1414,135 @@ public abstract class CallerInfoView extends TextView {
         if (TextUtils.isEmpty(mExtraIconText)) {
             return 0;
         }
-        int leftMargin = getExtraIconLeftMargin();
-        int paddingHorizontal = getDimenPx(R.dimen.mz_callcard_extra_icon_padding_horizontal);
-        Paint paint = new Paint();
-        paint.setTextSize(getDimenPx(R.dimen.mz_callcard_extra_icon_text_size));
-        return (int) (paint.measureText(mExtraIconText, 0, mExtraIconText.length()) + 2*paddingHorizontal + leftMargin);
+        return getExtraIconBadge().width + getExtraIconLeftMargin();
     }
 
     /** 首行显示 名字+ExtraIcon+SimIcon, 若三者宽度相加超出最大宽度, 则对名字省略显示 */
     protected String getFirstLineDisplayText(String firstLineText) {
         return computeDisplayText(firstLineText, mFirstLineTextSize, getExtraIconWidth() + getSimIconWidth(),
-                Typeface.create(InCallTypeface.getMediumTypeface(), Typeface.NORMAL));
+                getFirstLineTypeface());
     }
 
     /** 次行仅显示文字 若文字宽度超出最大宽度, 则对文字省略显示 */
     protected String getSecondaryDisplayText(String secondaryText) {
         return computeDisplayText(secondaryText, mSecondLineTextSize, 0,
-                Typeface.create(InCallTypeface.getDefaultTypeface(), Typeface.NORMAL));
+                getSecondLineTypeface());
     }
 
-    private String computeDisplayText(String originalText, int textSize, final int extraWidth, Typeface typeface) {
-        String ret = originalText;
-        // measure出来的textWidth比maxWidth只小几px时后面一个字和"..."会自动换行, why?
-        // 因此maxWidth减掉一个padding
-        final int maxWidth = mMaxTextContentWidth - getPaddingStart();
-        if (maxWidth > 0) {
-            Paint paint = new Paint();
-            paint.setTextSize(textSize);
-            paint.setTypeface(typeface);
-            int textWidth = (int)paint.measureText(ret);
-            while(!okToShowAsSingleline(textWidth, extraWidth, maxWidth)) {
-                if (ret.length() > 2) {
-                    // BlueSky -> BlueSk..., 逐个缩减并加上"..."看是否仍然超过最大长度
-                    ret = ret.substring(0, ret.length() - 1);
-                    ret = ret.trim(); // 移除最后的空格
-                    String oldStr = ret;
-                    String newStr = ret + "...";
-                    int oldTextWidth = textWidth;
-                    textWidth = (int)paint.measureText(newStr);
-                    if (okToShowAsSingleline(textWidth, extraWidth, maxWidth)) {
-                        ret = newStr;
-                        if (DbgUtils.DBG_CIV) {
-                            int strWidth = (int)paint.measureText(oldStr);
-                            log("computeText() check!!!  get: " + ret
-                                    + ", strWidth: " + strWidth
-                                    + ", ...W: " + paint.measureText("...")
-                                    + ", textWidth: " + textWidth
-                                    + ", totalWidth: " + (textWidth + extraWidth));
-                            log(" ");
-                        }
-                        break;
-                    }
-                    if (DbgUtils.DBG_CIV) {
-                        log("computeText() toCheck...  text: " + ret
-                                + ", textWidth: " + oldTextWidth + " -> " + textWidth
-                                + ", extraWidth: " + extraWidth
-                                + ", totalWidth: " + (textWidth + extraWidth)
-                                + ", maxWidth: " + maxWidth + ", padding: " + getPaddingLeft());
-                    }
-                } else {
-                    break;
-                }
-            }
+    private Typeface getFirstLineTypeface() {
+        final String family = InCallTypeface.getMediumTypeface();
+        if (mFirstLineTypeface == null || !TextUtils.equals(family, mFirstLineFamily)) {
+            mFirstLineTypeface = Typeface.create(family, Typeface.NORMAL);
+            mFirstLineFamily = family;
+        }
+        return mFirstLineTypeface;
+    }
+
+    private Typeface getSecondLineTypeface() {
+        final String family = InCallTypeface.getDefaultTypeface();
+        if (mSecondLineTypeface == null || !TextUtils.equals(family, mSecondLineFamily)) {
+            mSecondLineTypeface = Typeface.create(family, Typeface.NORMAL);
+            mSecondLineFamily = family;
         }
-        return ret;
+        return mSecondLineTypeface;
+    }
+
+    private String computeDisplayText(String originalText, int textSize, final int extraWidth, Typeface typeface) {
+        return mEllipsizer.getDisplayText(originalText, textSize, typeface, extraWidth,
+                getMaxDisplayWidth());
     }
 
-    private boolean okToShowAsSingleline(int textWidth, int extraIconWidth, int maxWidth) {
-        return textWidth + extraIconWidth < maxWidth;
+    /** 一行显示内容的最大宽度, <= 0时不省略 */
+    private int getMaxDisplayWidth() {
+        // measure出来的textWidth比maxWidth只小几px时后面一个字和"..."会自动换行, why?
+        // 因此maxWidth减掉一个padding
+        return mMaxTextContentWidth - getPaddingStart();
     }
 
     protected int getDimenPx(int dimenId) {
         return getResources().getDimensionPixelSize(dimenId);
     }
 
-    /** 设置一行显示内容的最大宽度, 若每一行要显示的内容超出此宽度, 则省略显示 */
+    /**
+     * 设置一行显示内容的最大宽度, 若每一行要显示的内容超出此宽度, 则省略显示。
+     * 宽度变化且已有显示内容时重新省略
+     */
     public void setMaxContentWidth(int width) {
+        mAutoMaxContentWidth = false;
+        updateMaxContentWidth(width);
+    }
+
+    /**
+     * 自动最大宽度: 按父view给出的可用宽度减去padding作为最大宽度, 不再需要setMaxContentWidth()。
+     * 旋转, 窗口大小变化, 悬浮窗切换后自动重新省略。
+     * <p>
+     * 宽度按{@link CallerInfoMetrics#autoWidthBucket}向下取整, 只有跨过一个粒度才重新省略, 避免每次layout都刷新;
+     * 回到用过的宽度时直接使用缓存的省略结果。
+     * </p>
+     * 取onMeasure()时的可用宽度而不是view自身的宽度, wrap_content时不会因省略后变窄而反复缩小。
+     */
+    public void setAutoMaxContentWidth(boolean auto) {
+        if (mAutoMaxContentWidth == auto) {
+            return;
+        }
+        mAutoMaxContentWidth = auto;
+        if (auto) {
+            requestLayout();
+        }
+    }
+
+    private void updateMaxContentWidth(int width) {
+        if (mMaxTextContentWidth == width) {
+            return;
+        }
         mMaxTextContentWidth = width;
+        // 没有显示内容时下次buildText()自然使用新的宽度
+        if (mAppliedFingerprint.valid) {
+            requestBuildText();
+        }
     }
 
-    /** 获取第一行文案 */
-    protected String getFirstLineText() {
-        String text;
-        if (TextUtils.isEmpty(mName)) {
-            text = mNumber;
-        } else {
-            text = mName;
+    /** 自动最大宽度时由onMeasure()调用 */
+    private void updateAutoMaxContentWidth(int widthMeasureSpec) {
+        if (MeasureSpec.getMode(widthMeasureSpec) == MeasureSpec.UNSPECIFIED) {
+            return;
+        }
+        final int available = MeasureSpec.getSize(widthMeasureSpec)
+                - getPaddingLeft() - getPaddingRight();
+        final int bucket = mMetrics.autoWidthBucket;
+        final int width = available <= 0 ? 0 : available / bucket * bucket;
+        if (mMaxTextContentWidth == width) {
+            return;
         }
+        mMaxTextContentWidth = width;
+        if (mAppliedFingerprint.valid) {
+            // measure过程中不能setText(), 在下一个消息中刷新
+            postBuildText();
+        }
+    }
 
-        return text;
+    /** 获取第一行文案, 覆盖时同时覆盖{@link #getFirstLineDependencies()} */
+    protected String getFirstLineText() {
+        return CallerInfoLine.composeFirstLineText(mName, mNumber);
     }
 
-    /** 获取第二行文案 */
+    /** 获取第二行文案, 覆盖时同时覆盖{@link #getSecondLineDependencies()} */
     protected String getSecondLineText() {
-        // FLYME:zhulanting@Incallui: [#691642, 2018/1/15] {@
-        if (!TextUtils.isEmpty(mVideoCallDialingStatus)) {
-            return mVideoCallDialingStatus;
-        }
-        // @}
-        StringBuilder sb = new StringBuilder();
-        if (TextUtils.isEmpty(mName)) { // 姓名为空时，第二行不显示号码
-            if (!TextUtils.isEmpty(mCallerLabel)) {
-                sb.append(mCallerLabel);
-            } else if (!TextUtils.isEmpty(mLocation)) {
-                sb.append(mLocation);
-            }
-        } else {
-            if (TextUtils.isEmpty(mNumber)) {
-                if (!TextUtils.isEmpty(mCallerLabel)) {
-                    sb.append(mCallerLabel);
-                } else if (!TextUtils.isEmpty(mLocation)) {
-                    sb.append(mLocation);
-                }
-            } else {
-                sb.append(mNumber);
-                if (!TextUtils.isEmpty(mCallerLabel)) {
-                    sb.append("  ").append(mCallerLabel);
-                } else if (!TextUtils.isEmpty(mLocation)) {
-                    sb.append("  ").append(mLocation);
-                }
-            }
-        }
+        return CallerInfoLine.composeSecondLineText(mName, mNumber, mCallerLabel, mLocation,
+                mVideoCallDialingStatus);
+    }
 
-        return sb.toString();
+    /**
+     * getFirstLineText()依赖的数据(DATA_*), 其中之一变化时才重新生成第一行文案, 否则复用上次的文案。
+     * 依赖子类自己的字段时, 修改后调用{@link #buildText()}
+     */
+    protected int getFirstLineDependencies() {
+        return DATA_NAME | DATA_NUMBER;
+    }
+
+    /** getSecondLineText()依赖的数据(DATA_*), @see #getFirstLineDependencies() */
+    protected int getSecondLineDependencies() {
+        return DATA_NAME | DATA_NUMBER | DATA_LOCATION | DATA_LABEL | DATA_VIDEO_STATUS;
     }
 
     /**
@@ -595,7 +1550,11 @@ public abstract class CallerInfoView extends TextView {
      * @param flag
      */
     public void highLightName(boolean flag) {
+        if (mHighLightName == flag) {
+            return;
+        }
         mHighLightName = flag;
+        updateStyle();
     }
 
     /**
@@ -630,16 +1589,106 @@ public abstract class CallerInfoView extends TextView {
         }
     }
 
-    /** 清除View中显示的CallerInfo信息 */
+    /** 清除View中显示的CallerInfo信息, 同{@link #recycle()} */
     public void release() {
-        setText(null);
+        recycle();
+    }
+
+    /**
+     * 回收(列表中的行滑出屏幕, 会议成员变化...): 清除所有数据和尚未完成的刷新, 结束字体大小动画,
+     * 之后用{@link #bind(String, String, String, String, int, Call)}显示新的数据。
+     * 字体大小, 颜色, 高亮, 显示模式等样式保留。不分配对象。
+     */
+    public void recycle() {
+        mBuildPending = false;
+        mHandler.removeMessages(MSG_BUILD_TEXT);
+        mHandler.removeMessages(MSG_APPLY_ASYNC_BUILD);
+        mBuildGeneration++;
+        if (mTextSizeAnimating) {
+            mTextSizeAnimating = false;
+            mFirstLineTextSize = mAnimFirstLineTextSize;
+            mSecondLineTextSize = mAnimSecondLineTextSize;
+        }
         // Don't call set***() which will buildText()
         mName = null;
         mNumber = null;
         mLocation = null;
+        mLocationChanged = false;
+        mCallerLabel = null;
+        mVideoCallDialingStatus = null;
+        mExtraIconText = null;
         mSlotId = -1;
         mSimIndicator = null;
-        destroyDrawingCache();
+        mSimIconWidth = 0;
+        mSimEntry = null;
+        mFirstLine.clear();
+        mSecondLine.clear();
+        mFirstLineDisplayText = null;
+        mSecondLineDisplayText = null;
+        clearDisplayText();
+    }
+
+    /**
+     * 回收后显示新的数据, 只buildText()一次。
+     * 数据已通过{@link #prefetch(String, String, String, String, int, Call)}预先计算时, 直接使用计算结果。
+     * @param call 用于扩展标签, 可为null
+     */
+    public void bind(String name, String number, String location, String label, int slotId,
+            Call call) {
+        beginUpdate();
+        setExtraIconText(call, true);
+        setInfos(name, number, location, label, slotId);
+        commitUpdate();
+    }
+
+    /**
+     * 预先计算即将显示(如列表中即将滑入屏幕)的一行数据, 在UI线程空闲时按本view的字体大小,
+     * 宽度和颜色计算省略结果并存入所有CallerInfoView共用的缓存; 之后样式相同的view
+     * {@link #bind(String, String, String, String, int, Call)}这些数据时不再measure。
+     * <p>
+     * 按默认的getFirstLineText()/getSecondLineText()生成文案, 覆盖了这两个方法的子类预先计算无效。
+     * </p>
+     */
+    public void prefetch(String name, String number, String location, String label,
+            int slotId, Call call) {
+        if (mPrefetcher == null) {
+            mPrefetcher = new CallerInfoPrefetcher(this);
+        }
+        mPrefetcher.add(name, number, location, label, slotId, getExtraIconText(call));
+    }
+
+    /** 取消尚未执行的预先计算 */
+    public void cancelPrefetch() {
+        if (mPrefetcher != null) {
+            mPrefetcher.cancel();
+        }
+    }
+
+    /** 由CallerInfoPrefetcher在UI线程空闲时调用 */
+    void prefetchNow(String name, String number, String location, String label, int slotId,
+            String extraIconText) {
+        final String firstLineText = CallerInfoLine.composeFirstLineText(name, number);
+        if (TextUtils.isEmpty(firstLineText)) {
+            return;
+        }
+        final int maxWidth = getMaxDisplayWidth();
+        int extraWidth = 0;
+        if (!TextUtils.isEmpty(extraIconText)) {
+            extraWidth += queryExtraIconBadge(extraIconText, getSecondLineTypeface()).width
+                    + getExtraIconLeftMargin();
+        }
+        final SimIndicatorCache.Entry sim = SimIndicatorCache.get(getResources(), slotId);
+        if (sim.template != null) {
+            extraWidth += sim.width + getExtraIconLeftMargin();
+        }
+        mEllipsizer.getDisplayText(firstLineText, mFirstLineTextSize, getFirstLineTypeface(),
+                extraWidth, maxWidth);
+        final String secondLineText = CallerInfoLine.composeSecondLineText(name, number, label,
+                location, null);
+        if (!TextUtils.isEmpty(secondLineText)) {
+            mEllipsizer.getDisplayText(secondLineText, mSecondLineTextSize,
+                    getSecondLineTypeface(), 0, maxWidth);
+        }
     }
 
     protected void log(String msg) {
@@ -647,4 +1696,59 @@ public abstract class CallerInfoView extends TextView {
             Log.d(TAG, msg);
         }
     }
+
+    /** buildText()时的数据快照, 在sBuildExecutor中计算显示内容后交回UI线程 */
+    private static final class AsyncBuild implements Runnable {
+        final CallerInfoView view;
+        final int generation;
+        final String firstLineText;
+        final int firstLineTextSize;
+        final Typeface firstLineTypeface;
+        final int firstLineExtraWidth;
+        final String secondLineText;
+        final int secondLineTextSize;
+        final Typeface secondLineTypeface;
+        final int maxWidth;
+
+        String firstLineDisplayText;
+        String secondLineDisplayText;
+
+        /** 已知的省略结果(该行输入未变化)不再计算, 可为null */
+        AsyncBuild(CallerInfoView view, int generation,
+                String firstLineText, int firstLineTextSize, Typeface firstLineTypeface,
+                int firstLineExtraWidth, String firstLineDisplayText,
+                String secondLineText, int secondLineTextSize, Typeface secondLineTypeface,
+                String secondLineDisplayText, int maxWidth) {
+            this.view = view;
+            this.generation = generation;
+            this.firstLineText = firstLineText;
+            this.firstLineTextSize = firstLineTextSize;
+            this.firstLineTypeface = firstLineTypeface;
+            this.firstLineExtraWidth = firstLineExtraWidth;
+            this.secondLineText = secondLineText;
+            this.secondLineTextSize = secondLineTextSize;
+            this.secondLineTypeface = secondLineTypeface;
+            this.maxWidth = maxWidth;
+            this.firstLineDisplayText = firstLineDisplayText;
+            this.secondLineDisplayText = secondLineDisplayText;
+        }
+
+        @Override
+        public void run() {
+            if (generation != view.mBuildGeneration) {
+                return; // 已有更新的数据, 不用再计算
+            }
+            final long start = CallerInfoStats.begin();
+            if (firstLineDisplayText == null) {
+                firstLineDisplayText = sAsyncEllipsizer.getDisplayText(firstLineText,
+                        firstLineTextSize, firstLineTypeface, firstLineExtraWidth, maxWidth);
+            }
+            if (secondLineText != null && secondLineDisplayText == null) {
+                secondLineDisplayText = sAsyncEllipsizer.getDisplayText(secondLineText,
+                        secondLineTextSize, secondLineTypeface, 0, maxWidth);
+            }
+            CallerInfoStats.end(CallerInfoStats.STAGE_ELLIPSIZE, start);
+            view.mHandler.sendMessage(view.mHandler.obtainMessage(MSG_APPLY_ASYNC_BUILD, this));
+        }
+    }
 }
@@ -0,0 +1,244 @@
+package com.meizu.incallui.widget;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.RectF;
+import android.graphics.Typeface;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.text.TextUtils;
+import android.util.LruCache;
+
+/**
+ * 扩展标签(专线电话, 网络电话)的预绘制缓存, 所有CallerInfoView共用。
+ * <p>
+ * 标签只有几种文字和颜色组合, 每种(文字, 字体, 字体大小, 颜色, 背景颜色, padding, 圆角, density)
+ * 只绘制一次圆角矩形背景和文字到Bitmap, 之后作为一个ImageSpan插入, 宽度已知,
+ * buildText()时不再为标签排版和measure。
+ * 没有指定颜色时由RadiusBackgroundSpan绘制, 与原来的显示效果一致。
+ * </p>
+ * 共用的Drawable不要修改(setBounds, setAlpha等), view中通过{@link BadgeDrawable}显示。
+ */
+final class ExtraIconBadgeCache {
+    private static final int MAX_SIZE = 8;
+
+    private static final LruCache<Key, Badge> sCache = new LruCache<Key, Badge>(MAX_SIZE);
+    /** 查找用的key, 需在sCache锁内使用 */
+    private static final Key sProbe = new Key();
+    private static final Paint sTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private static final Paint sBgPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private static final Paint.FontMetricsInt sFontMetrics = new Paint.FontMetricsInt();
+    private static final RectF sRect = new RectF();
+
+    private ExtraIconBadgeCache() {
+    }
+
+    /** 绘制好的标签, bounds为(0, 0, width, height) */
+    static final class Badge {
+        final Drawable drawable;
+        final int width;
+        final int height;
+
+        Badge(Drawable drawable, int width, int height) {
+            this.drawable = drawable;
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    /**
+     * 显示标签的Drawable, 每个view一个, 颜色变化时换成另一个宽高相同的标签只需重绘
+     */
+    static final class BadgeDrawable extends Drawable {
+        private Badge mBadge;
+
+        void setBadge(Badge badge) {
+            mBadge = badge;
+            setBounds(0, 0, badge.width, badge.height);
+        }
+
+        /** @return 宽高与当前相同时换成badge并返回true, 否则不变 */
+        boolean swapBadge(Badge badge) {
+            if (mBadge == null || mBadge.width != badge.width || mBadge.height != badge.height) {
+                return false;
+            }
+            mBadge = badge;
+            invalidateSelf();
+            return true;
+        }
+
+        @Override
+        public void draw(Canvas canvas) {
+            if (mBadge != null) {
+                mBadge.drawable.draw(canvas);
+            }
+        }
+
+        @Override
+        public int getIntrinsicWidth() {
+            return mBadge == null ? 0 : mBadge.width;
+        }
+
+        @Override
+        public int getIntrinsicHeight() {
+            return mBadge == null ? 0 : mBadge.height;
+        }
+
+        @Override
+        public void setAlpha(int alpha) {
+        }
+
+        @Override
+        public void setColorFilter(ColorFilter colorFilter) {
+        }
+
+        @Override
+        public int getOpacity() {
+            return PixelFormat.TRANSLUCENT;
+        }
+    }
+
+    /** 使用RadiusBackgroundSpan默认的颜色 */
+    static Badge get(Resources res, String text, Typeface typeface, int textSize,
+            int paddingHorizontal, int paddingVertical, int radius) {
+        return get(res, text, typeface, textSize, true, 0, 0, paddingHorizontal,
+                paddingVertical, radius);
+    }
+
+    static Badge get(Resources res, String text, Typeface typeface, int textSize, int color,
+            int bgColor, int paddingHorizontal, int paddingVertical, int radius) {
+        return get(res, text, typeface, textSize, false, color, bgColor, paddingHorizontal,
+                paddingVertical, radius);
+    }
+
+    private static Badge get(Resources res, String text, Typeface typeface, int textSize,
+            boolean defaultColors, int color, int bgColor, int paddingHorizontal,
+            int paddingVertical, int radius) {
+        final int densityDpi = res.getDisplayMetrics().densityDpi;
+        synchronized (sCache) {
+            sProbe.set(text, typeface, textSize, defaultColors, color, bgColor,
+                    paddingHorizontal, paddingVertical, radius, densityDpi);
+            Badge badge = sCache.get(sProbe);
+            if (badge == null) {
+                badge = draw(res, text, typeface, textSize, defaultColors, color, bgColor,
+                        paddingHorizontal, paddingVertical, radius);
+                Key key = new Key();
+                key.set(text, typeface, textSize, defaultColors, color, bgColor,
+                        paddingHorizontal, paddingVertical, radius, densityDpi);
+                sCache.put(key, badge);
+            }
+            return badge;
+        }
+    }
+
+    /** 字体文件变化时清空 */
+    static void invalidate() {
+        sCache.evictAll();
+    }
+
+    /** 需持有sCache锁 */
+    private static Badge draw(Resources res, String text, Typeface typeface, int textSize,
+            boolean defaultColors, int color, int bgColor, int paddingHorizontal,
+            int paddingVertical, int radius) {
+        sTextPaint.setTypeface(typeface);
+        sTextPaint.setTextSize(textSize);
+        // 默认颜色由RadiusBackgroundSpan自己设置
+        sTextPaint.setColor(defaultColors ? Color.BLACK : color);
+        sBgPaint.setColor(bgColor);
+        sTextPaint.getFontMetricsInt(sFontMetrics);
+
+        RadiusBackgroundSpan span = null;
+        final int contentWidth;
+        if (defaultColors) {
+            // margin由ImageSpan处理, 这里为0
+            span = new RadiusBackgroundSpan();
+            span.setPadding(paddingHorizontal, paddingVertical);
+            span.setRadius(radius);
+            contentWidth = span.getSize(sTextPaint, text, 0, text.length(), null);
+        } else {
+            contentWidth = (int) Math.ceil(sTextPaint.measureText(text)) + 2 * paddingHorizontal;
+        }
+        final int width = Math.max(1, contentWidth);
+        final int height = Math.max(1,
+                sFontMetrics.descent - sFontMetrics.ascent + 2 * paddingVertical);
+        final int baseline = paddingVertical - sFontMetrics.ascent;
+        final Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        final Canvas canvas = new Canvas(bitmap);
+        if (span != null) {
+            span.draw(canvas, text, 0, text.length(), 0, 0, baseline, height, sTextPaint);
+        } else {
+            sRect.set(0, 0, width, height);
+            canvas.drawRoundRect(sRect, radius, radius, sBgPaint);
+            canvas.drawText(text, paddingHorizontal, baseline, sTextPaint);
+        }
+
+        final BitmapDrawable drawable = new BitmapDrawable(res, bitmap);
+        drawable.setBounds(0, 0, width, height);
+        return new Badge(drawable, width, height);
+    }
+
+    private static final class Key {
+        String text;
+        Typeface typeface;
+        int textSize;
+        boolean defaultColors;
+        int color;
+        int bgColor;
+        int paddingHorizontal;
+        int paddingVertical;
+        int radius;
+        int densityDpi;
+
+        void set(String text, Typeface typeface, int textSize, boolean defaultColors, int color,
+                int bgColor, int paddingHorizontal, int paddingVertical, int radius,
+                int densityDpi) {
+            this.text = text;
+            this.typeface = typeface;
+            this.textSize = textSize;
+            this.defaultColors = defaultColors;
+            this.color = defaultColors ? 0 : color;
+            this.bgColor = defaultColors ? 0 : bgColor;
+            this.paddingHorizontal = paddingHorizontal;
+            this.paddingVertical = paddingVertical;
+            this.radius = radius;
+            this.densityDpi = densityDpi;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return textSize == other.textSize
+                    && defaultColors == other.defaultColors
+                    && color == other.color
+                    && bgColor == other.bgColor
+                    && paddingHorizontal == other.paddingHorizontal
+                    && paddingVertical == other.paddingVertical
+                    && radius == other.radius
+                    && densityDpi == other.densityDpi
+                    && (typeface != null ? typeface.equals(other.typeface) : other.typeface == null)
+                    && TextUtils.equals(text, other.text);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = text != null ? text.hashCode() : 0;
+            result = 31 * result + textSize;
+            result = 31 * result + (defaultColors ? 1 : 0);
+            result = 31 * result + color;
+            result = 31 * result + bgColor;
+            result = 31 * result + densityDpi;
+            return result;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.meizu.incallui.widget;
+
+import android.graphics.Typeface;
+import android.util.LruCache;
+
+/**
+ * 缓存每个字宽度的TextMeasurer。
+ * <p>
+ * 显示的内容大多是号码(数字, +, 空格)和有限的中文, 这些字在我们的字体中宽度固定, 与前后的字无关。
+ * 按(字体, 字体大小)缓存这些字的宽度, 只由这些字组成的文字直接累加, 号码的宽度几乎不用计算；
+ * 第一次遇到的字才用fallback计算一次。含其它字(字母等可能有字间距调整)的文字整串交给fallback。
+ * </p>
+ * 宽度表所有实例共用。
+ */
+final class GlyphCacheTextMeasurer implements TextMeasurer {
+    private static final int MAX_TABLES = 16;
+
+    private static final LruCache<TableKey, AdvanceTable> sTables =
+            new LruCache<TableKey, AdvanceTable>(MAX_TABLES);
+    /** 查找用的key, 需在sTables锁内使用 */
+    private static final TableKey sProbe = new TableKey();
+    /** invalidate()时加1, 实例持有的宽度表随之失效 */
+    private static volatile int sGeneration;
+
+    private final TextMeasurer mFallback;
+    private final char[] mGlyph = new char[1];
+
+    private Typeface mTypeface;
+    private int mTextSize = -1;
+    private AdvanceTable mTable;
+    private int mGeneration;
+
+    GlyphCacheTextMeasurer(TextMeasurer fallback) {
+        mFallback = fallback;
+    }
+
+    @Override
+    public void setTextStyle(Typeface typeface, int textSize) {
+        mFallback.setTextStyle(typeface, textSize);
+        final int generation = sGeneration;
+        if (mTable != null && mTypeface == typeface && mTextSize == textSize
+                && mGeneration == generation) {
+            return;
+        }
+        mTypeface = typeface;
+        mTextSize = textSize;
+        mGeneration = generation;
+        synchronized (sTables) {
+            sProbe.set(typeface, textSize);
+            AdvanceTable table = sTables.get(sProbe);
+            if (table == null) {
+                TableKey key = new TableKey();
+                key.set(typeface, textSize);
+                table = new AdvanceTable();
+                sTables.put(key, table);
+            }
+            mTable = table;
+        }
+    }
+
+    @Override
+    public float measureText(String text, int start, int end) {
+        final AdvanceTable table = mTable;
+        float width = 0;
+        synchronized (table) {
+            for (int i = start; i < end; i++) {
+                final char c = text.charAt(i);
+                if (!isFixedAdvance(c)) {
+                    return mFallback.measureText(text, start, end);
+                }
+                width += getAdvance(table, c);
+            }
+        }
+        return width;
+    }
+
+    @Override
+    public float measureText(char[] text, int start, int end) {
+        final AdvanceTable table = mTable;
+        float width = 0;
+        synchronized (table) {
+            for (int i = start; i < end; i++) {
+                final char c = text[i];
+                if (!isFixedAdvance(c)) {
+                    return mFallback.measureText(text, start, end);
+                }
+                width += getAdvance(table, c);
+            }
+        }
+        return width;
+    }
+
+    @Override
+    public void getTextWidths(String text, float[] widths) {
+        final AdvanceTable table = mTable;
+        final int length = text.length();
+        synchronized (table) {
+            for (int i = 0; i < length; i++) {
+                final char c = text.charAt(i);
+                if (!isFixedAdvance(c)) {
+                    mFallback.getTextWidths(text, widths);
+                    return;
+                }
+                widths[i] = getAdvance(table, c);
+            }
+        }
+    }
+
+    @Override
+    public boolean isAdditive(char c) {
+        return isFixedAdvance(c);
+    }
+
+    /** 宽度表的版本, invalidate()后变化 */
+    static int generation() {
+        return sGeneration;
+    }
+
+    /** 字体文件变化时清空所有宽度表 */
+    static void invalidate() {
+        synchronized (sTables) {
+            sGeneration++;
+            sTables.evictAll();
+        }
+    }
+
+    /** 需持有table锁 */
+    private float getAdvance(AdvanceTable table, char c) {
+        float advance = table.get(c);
+        if (advance < 0) {
+            mGlyph[0] = c;
+            advance = mFallback.measureText(mGlyph, 0, 1);
+            table.put(c, advance);
+        }
+        return advance;
+    }
+
+    /** 宽度与前后文字无关的字: 数字, 号码中的符号, 空格, 中文 */
+    static boolean isFixedAdvance(char c) {
+        return (c >= '0' && c <= '9') || c == '+' || c == '-' || c == ' ' || c == '*'
+                || c == '#' || c == '.' || c == '(' || c == ')'
+                || (c >= '\u4e00' && c <= '\u9fff');
+    }
+
+    /** 字 -> 宽度, 开放寻址 */
+    private static final class AdvanceTable {
+        private char[] mKeys = new char[64];
+        private float[] mValues = new float[64];
+        private boolean[] mUsed = new boolean[64];
+        private int mSize;
+
+        /** @return 没有缓存时返回-1 */
+        float get(char c) {
+            final int mask = mKeys.length - 1;
+            for (int i = c & mask; mUsed[i]; i = (i + 1) & mask) {
+                if (mKeys[i] == c) {
+                    return mValues[i];
+                }
+            }
+            return -1;
+        }
+
+        void put(char c, float advance) {
+            if ((mSize + 1) * 2 > mKeys.length) {
+                resize(mKeys.length * 2);
+            }
+            final int mask = mKeys.length - 1;
+            int i = c & mask;
+            while (mUsed[i] && mKeys[i] != c) {
+                i = (i + 1) & mask;
+            }
+            if (!mUsed[i]) {
+                mUsed[i] = true;
+                mKeys[i] = c;
+                mSize++;
+            }
+            mValues[i] = advance;
+        }
+
+        private void resize(int capacity) {
+            final char[] keys = mKeys;
+            final float[] values = mValues;
+            final boolean[] used = mUsed;
+            mKeys = new char[capacity];
+            mValues = new float[capacity];
+            mUsed = new boolean[capacity];
+            mSize = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (used[i]) {
+                    put(keys[i], values[i]);
+                }
+            }
+        }
+    }
+
+    private static final class TableKey {
+        Typeface typeface;
+        int textSize;
+
+        void set(Typeface typeface, int textSize) {
+            this.typeface = typeface;
+            this.textSize = textSize;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TableKey)) {
+                return false;
+            }
+            TableKey other = (TableKey) o;
+            return textSize == other.textSize
+                    && (typeface != null ? typeface.equals(other.typeface) : other.typeface == null);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (typeface != null ? typeface.hashCode() : 0) + textSize;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.meizu.incallui.widget;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * 按号码前缀缓存归属地, 所有CallerInfoView共用。
+ * <p>
+ * 归属地只由号码前缀决定: 手机号为前7位, 固话为区号(010, 02x为3位, 其它为4位), 去掉+86/0086后计算,
+ * 加拨0的手机号(013812345678)去掉0后按手机号计算, 带国家码的固话(+86 10 12345678)补上区号前的0。
+ * 其它国家和地区的号码(+1, 00852等)不记录也不查找, 以免与国内号段混淆。
+ * CallerInfoView在号码和归属地都确定后(buildText()时)按前缀记录, 之后同一号段的号码可以在显示前同步取到归属地,
+ * 一次setInfos()就显示完整内容, 不用等查询结果再buildText()一次。
+ * </p>
+ * 前缀存放在按数字展开的数组trie中, 查找只遍历号码一次, 不分配对象。
+ */
+final class LocationPrefixCache {
+    /** trie最大节点数, 超出时清空重新记录 */
+    private static final int MAX_NODES = 8192;
+    private static final int MOBILE_PREFIX_LENGTH = 7;
+    private static final int MOBILE_LENGTH = 11;
+    /** 号码中最多取的数字个数 */
+    private static final int MAX_DIGITS = 16;
+
+    private static final Object sLock = new Object();
+    /** 节点i的数字d的子节点为sChildren[i * 10 + d], 0表示没有(0号为根节点) */
+    private static int[] sChildren = new int[256 * 10];
+    /** 节点的归属地在sLocations中的位置, -1表示没有 */
+    private static int[] sValues = new int[256];
+    private static int sNodeCount = 1;
+    private static final ArrayList<String> sLocations = new ArrayList<String>();
+    private static final HashMap<String, Integer> sLocationIndex = new HashMap<String, Integer>();
+    /** 去掉国家码后的数字, 需在sLock锁内使用 */
+    private static final char[] sDigits = new char[MAX_DIGITS];
+
+    static {
+        sValues[0] = -1;
+    }
+
+    private LocationPrefixCache() {
+    }
+
+    /** @return number所在号段的归属地, 没有记录时返回null */
+    static String get(String number) {
+        if (number == null) {
+            return null;
+        }
+        synchronized (sLock) {
+            final int count = normalize(number);
+            final int prefixLength = prefixLength(count);
+            if (prefixLength <= 0) {
+                return null;
+            }
+            int node = 0;
+            for (int i = 0; i < prefixLength; i++) {
+                node = sChildren[node * 10 + sDigits[i] - '0'];
+                if (node == 0) {
+                    return null;
+                }
+            }
+            final int value = sValues[node];
+            return value < 0 ? null : sLocations.get(value);
+        }
+    }
+
+    /** 记录number所在号段的归属地 */
+    static void put(String number, String location) {
+        if (number == null || location == null || location.isEmpty()) {
+            return;
+        }
+        synchronized (sLock) {
+            final int count = normalize(number);
+            final int prefixLength = prefixLength(count);
+            if (prefixLength <= 0) {
+                return;
+            }
+            if (sNodeCount + prefixLength > MAX_NODES) {
+                clearLocked();
+            }
+            int node = 0;
+            for (int i = 0; i < prefixLength; i++) {
+                final int slot = node * 10 + sDigits[i] - '0';
+                int child = sChildren[slot];
+                if (child == 0) {
+                    child = newNode();
+                    sChildren[slot] = child;
+                }
+                node = child;
+            }
+            Integer index = sLocationIndex.get(location);
+            if (index == null) {
+                index = sLocations.size();
+                sLocations.add(location);
+                sLocationIndex.put(location, index);
+            }
+            sValues[node] = index;
+        }
+    }
+
+    static void clear() {
+        synchronized (sLock) {
+            clearLocked();
+        }
+    }
+
+    /**
+     * 取出号码中的数字到sDigits, 去掉+86/0086国家码和手机号前加拨的0, 带国家码的固话补上区号前的0
+     * @return 数字个数, 超过MAX_DIGITS或国家码不是86时返回-1
+     */
+    private static int normalize(String number) {
+        final int length = number.length();
+        int count = 0;
+        boolean plus = false;
+        for (int i = 0; i < length; i++) {
+            final char c = number.charAt(i);
+            if (c == '+' && count == 0) {
+                plus = true;
+            } else if (c >= '0' && c <= '9') {
+                if (count == MAX_DIGITS) {
+                    return -1;
+                }
+                sDigits[count++] = c;
+            }
+        }
+        int skip = 0;
+        if (count > 4 && sDigits[0] == '0' && sDigits[1] == '0' && sDigits[2] == '8'
+                && sDigits[3] == '6') {
+            skip = 4;
+        } else if (count > 2 && sDigits[0] == '8' && sDigits[1] == '6'
+                && (plus || count == MOBILE_LENGTH + 2)) {
+            skip = 2;
+        } else if (plus || (count > 2 && sDigits[0] == '0' && sDigits[1] == '0')) {
+            // 其它国家码: +1 650..., 00852...
+            return -1;
+        }
+        if (skip > 0) {
+            System.arraycopy(sDigits, skip, sDigits, 0, count - skip);
+            count -= skip;
+        }
+        if (count == MOBILE_LENGTH + 1 && sDigits[0] == '0' && sDigits[1] == '1'
+                && sDigits[2] != '0') {
+            // 0 + 手机号; 010的号码为11位, 且第3位为0
+            System.arraycopy(sDigits, 1, sDigits, 0, --count);
+        } else if (skip > 0 && count > 4 && sDigits[0] != '0'
+                && !(count == MOBILE_LENGTH && sDigits[0] == '1')) {
+            // 带国家码的固话省略了区号前的0
+            System.arraycopy(sDigits, 0, sDigits, 1, count++);
+            sDigits[0] = '0';
+        }
+        return count;
+    }
+
+    /** @return 决定归属地的前缀长度, 无法判断时返回0 */
+    private static int prefixLength(int count) {
+        if (count == MOBILE_LENGTH && sDigits[0] == '1') {
+            return MOBILE_PREFIX_LENGTH;
+        }
+        if (count > 4 && sDigits[0] == '0') {
+            return sDigits[1] == '1' || sDigits[1] == '2' ? 3 : 4;
+        }
+        return 0;
+    }
+
+    private static int newNode() {
+        if (sNodeCount == sValues.length) {
+            final int capacity = sValues.length * 2;
+            final int[] children = new int[capacity * 10];
+            final int[] values = new int[capacity];
+            System.arraycopy(sChildren, 0, children, 0, sChildren.length);
+            System.arraycopy(sValues, 0, values, 0, sValues.length);
+            sChildren = children;
+            sValues = values;
+        }
+        final int node = sNodeCount++;
+        sValues[node] = -1;
+        return node;
+    }
+
+    private static void clearLocked() {
+        Arrays.fill(sChildren, 0);
+        sValues[0] = -1;
+        sNodeCount = 1;
+        sLocations.clear();
+        sLocationIndex.clear();
+    }
+}
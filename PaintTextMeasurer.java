@@ -0,0 +1,35 @@
+package com.meizu.incallui.widget;
+
+import android.graphics.Paint;
+import android.graphics.Typeface;
+
+/** 直接用Paint计算宽度 */
+final class PaintTextMeasurer implements TextMeasurer {
+    private final Paint mPaint = new Paint();
+
+    @Override
+    public void setTextStyle(Typeface typeface, int textSize) {
+        mPaint.setTypeface(typeface);
+        mPaint.setTextSize(textSize);
+    }
+
+    @Override
+    public float measureText(String text, int start, int end) {
+        return mPaint.measureText(text, start, end);
+    }
+
+    @Override
+    public float measureText(char[] text, int start, int end) {
+        return mPaint.measureText(text, start, end - start);
+    }
+
+    @Override
+    public void getTextWidths(String text, float[] widths) {
+        mPaint.getTextWidths(text, widths);
+    }
+
+    @Override
+    public boolean isAdditive(char c) {
+        return false;
+    }
+}
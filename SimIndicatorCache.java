@@ -0,0 +1,133 @@
+package com.meizu.incallui.widget;
+
+import com.meizu.incallui.ui.SimSlotIndicatorHelper;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.content.res.Resources;
+import android.graphics.drawable.Drawable;
+
+/**
+ * 按卡槽缓存卡图标, 所有CallerInfoView(通话界面, 会议通话列表, 悬浮窗...)共用。
+ * <p>
+ * 每个卡槽只调用一次SimSlotIndicatorHelper读取图标并记录宽高, 各view通过{@link Entry#newDrawable(Resources)}
+ * 取得共享ConstantState的Drawable, 不共用同一个Drawable实例。
+ * 是否显示卡图标每次都重新判断, 不缓存。
+ * </p>
+ * SIM卡状态变化(插拔卡, 启用/停用)时由注册的广播自动清空; density变化时自动重新读取。
+ * 只在主线程调用。
+ */
+final class SimIndicatorCache {
+    private static final int MAX_SLOTS = 4;
+    /** TelephonyIntents.ACTION_SIM_STATE_CHANGED */
+    private static final String ACTION_SIM_STATE_CHANGED = "android.intent.action.SIM_STATE_CHANGED";
+
+    /** 该卡槽没有图标 */
+    private static final Entry NONE = new Entry(-1, null);
+
+    private static final Entry[] sEntries = new Entry[MAX_SLOTS];
+    private static int sDensityDpi;
+    /** 清空时加1, view据此判断卡图标是否需要重新读取 */
+    private static int sGeneration;
+    private static boolean sReceiverRegistered;
+
+    private SimIndicatorCache() {
+    }
+
+    /** 卡图标的宽高和模板, 模板不直接显示 */
+    static final class Entry {
+        final int slotId;
+        /** 模板, 为null时没有图标 */
+        final Drawable template;
+        final int width;
+        final int height;
+
+        Entry(int slotId, Drawable template) {
+            this.slotId = slotId;
+            this.template = template;
+            width = template == null ? 0 : template.getIntrinsicWidth();
+            height = template == null ? 0 : template.getIntrinsicHeight();
+        }
+
+        /** @return 新的Drawable, bounds为(0, 0, width, height); 没有图标时返回null */
+        Drawable newDrawable(Resources res) {
+            if (template == null) {
+                return null;
+            }
+            final Drawable.ConstantState state = template.getConstantState();
+            final Drawable drawable = state != null ? state.newDrawable(res)
+                    : SimSlotIndicatorHelper.getSimIndicatorDrawable(slotId);
+            if (drawable != null) {
+                drawable.setBounds(0, 0, width, height);
+            }
+            return drawable;
+        }
+    }
+
+    /** 注册SIM卡状态变化的广播, 只注册一次 */
+    static void registerReceiver(Context context) {
+        if (sReceiverRegistered) {
+            return;
+        }
+        sReceiverRegistered = true;
+        context.getApplicationContext().registerReceiver(new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                invalidate();
+            }
+        }, new IntentFilter(ACTION_SIM_STATE_CHANGED));
+    }
+
+    static int generation() {
+        return sGeneration;
+    }
+
+    /** @return 卡槽的卡图标, 不显示卡图标或卡槽无效时返回的template为null */
+    static Entry get(Resources res, int slotId) {
+        if (!SimSlotIndicatorHelper.okToShowSimSlotIndicator()) {
+            return NONE;
+        }
+        return load(res, slotId);
+    }
+
+    /** 只读取图标, 不判断是否显示, 用于预先加载 */
+    static void preload(Resources res, int slotId) {
+        load(res, slotId);
+    }
+
+    /** SIM卡状态变化时调用, 重新读取图标 */
+    static void invalidate() {
+        clear();
+    }
+
+    private static Entry load(Resources res, int slotId) {
+        final int densityDpi = res.getConfiguration().densityDpi;
+        if (sDensityDpi != densityDpi) {
+            clear();
+            sDensityDpi = densityDpi;
+        }
+        if (slotId < 0 || slotId >= MAX_SLOTS) {
+            return read(slotId);
+        }
+        Entry entry = sEntries[slotId];
+        if (entry == null) {
+            entry = read(slotId);
+            sEntries[slotId] = entry;
+        }
+        return entry;
+    }
+
+    private static Entry read(int slotId) {
+        final Drawable drawable = SimSlotIndicatorHelper.getSimIndicatorDrawable(slotId);
+        return drawable == null ? NONE : new Entry(slotId, drawable);
+    }
+
+    private static void clear() {
+        for (int i = 0; i < MAX_SLOTS; i++) {
+            sEntries[i] = null;
+        }
+        sGeneration++;
+    }
+}
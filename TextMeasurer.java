@@ -0,0 +1,31 @@
+package com.meizu.incallui.widget;
+
+import android.graphics.Typeface;
+
+/**
+ * 文字宽度计算, CallerInfoView中所有宽度都通过它计算。
+ * <p>
+ * 默认实现为{@link GlyphCacheTextMeasurer}, 不依赖Paint的实现可用于在JVM上验证省略逻辑。
+ * </p>
+ * 实现均非线程安全, 每个使用者持有自己的实例。
+ */
+interface TextMeasurer {
+    /** 设置之后measure使用的字体和字体大小 */
+    void setTextStyle(Typeface typeface, int textSize);
+
+    float measureText(String text, int start, int end);
+
+    float measureText(char[] text, int start, int end);
+
+    /**
+     * 每个字的宽度
+     * @param widths 长度需不小于text.length()
+     */
+    void getTextWidths(String text, float[] widths);
+
+    /**
+     * c的宽度与前后文字无关: 只由这样的字组成的文字, measureText()等于从左到右逐字宽度依次累加,
+     * 可以增量计算
+     */
+    boolean isAdditive(char c);
+}
@@ -0,0 +1,74 @@
+package com.meizu.incallui.widget;
+
+import android.graphics.Typeface;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+/**
+ * 基准测试的输入: corpus.tsv中的来电信息, 以及与手机上接近的显示参数(1080p, xxhdpi)。
+ */
+final class CallerInfoCorpus {
+    static final int FIRST_LINE_TEXT_SIZE = 72;
+    static final int SECOND_LINE_TEXT_SIZE = 42;
+    /** 扩展标签 + 卡图标的宽度 */
+    static final int FIRST_LINE_EXTRA_WIDTH = 150;
+
+    static final Typeface FIRST_LINE_TYPEFACE = Typeface.create("sans-serif-medium",
+            Typeface.NORMAL);
+    static final Typeface SECOND_LINE_TYPEFACE = Typeface.create("sans-serif", Typeface.NORMAL);
+
+    /** 一条来电信息, 没有的项为null */
+    static final class Entry {
+        final String name;
+        final String number;
+        final String location;
+        final String label;
+
+        Entry(String name, String number, String location, String label) {
+            this.name = name;
+            this.number = number;
+            this.location = location;
+            this.label = label;
+        }
+    }
+
+    static final Entry[] ENTRIES = load();
+
+    private CallerInfoCorpus() {
+    }
+
+    private static Entry[] load() {
+        final ArrayList<Entry> entries = new ArrayList<Entry>();
+        try (InputStream in = CallerInfoCorpus.class.getResourceAsStream("/corpus.tsv")) {
+            if (in == null) {
+                throw new IllegalStateException("corpus.tsv not found");
+            }
+            final BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                final String[] columns = line.split("\t", -1);
+                if (columns.length != 4) {
+                    throw new IllegalStateException("bad corpus line: " + line);
+                }
+                entries.add(new Entry(column(columns[0]), column(columns[1]),
+                        column(columns[2]), column(columns[3])));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return entries.toArray(new Entry[0]);
+    }
+
+    private static String column(String value) {
+        return "-".equals(value) ? null : value;
+    }
+}
@@ -0,0 +1,107 @@
+package com.meizu.incallui.widget;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * measure并省略(computeDisplayText()): 不经过缓存的省略, 缓存命中, 以及拨号时号码逐位增加的增量计算。
+ * maxWidth为480时大部分姓名和第二行需要省略, 为900时大部分不需要。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EllipsizeBenchmark {
+    /** 拨号时依次输入的号码 */
+    private static final String DIAL_NUMBER = "+86 138 0013 8000";
+
+    @Param({"480", "900"})
+    public int maxWidth;
+
+    @Param({"paint", "glyphCache"})
+    public String measurer;
+
+    private CallerInfoEllipsizer mEllipsizer;
+    private String[] mFirstLines;
+    private String[] mSecondLines;
+    private String[] mDialPrefixes;
+    private int mIndex;
+    private int mDialIndex;
+
+    @Setup
+    public void setUp() {
+        mEllipsizer = new CallerInfoEllipsizer("paint".equals(measurer) ? new PaintTextMeasurer()
+                : new GlyphCacheTextMeasurer(new PaintTextMeasurer()));
+        final CallerInfoCorpus.Entry[] entries = CallerInfoCorpus.ENTRIES;
+        mFirstLines = new String[entries.length];
+        mSecondLines = new String[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            final CallerInfoCorpus.Entry entry = entries[i];
+            mFirstLines[i] = CallerInfoLine.composeFirstLineText(entry.name, entry.number);
+            mSecondLines[i] = CallerInfoLine.composeSecondLineText(entry.name, entry.number,
+                    entry.label, entry.location, null);
+        }
+        mDialPrefixes = new String[DIAL_NUMBER.length()];
+        for (int i = 0; i < mDialPrefixes.length; i++) {
+            mDialPrefixes[i] = DIAL_NUMBER.substring(0, i + 1);
+        }
+        // 首行的省略结果都放入缓存, 数量小于缓存大小, cacheHit中全部命中
+        CallerInfoDisplayTextCache.invalidate();
+        for (String text : mFirstLines) {
+            mEllipsizer.getDisplayText(text, CallerInfoCorpus.FIRST_LINE_TEXT_SIZE,
+                    CallerInfoCorpus.FIRST_LINE_TYPEFACE, CallerInfoCorpus.FIRST_LINE_EXTRA_WIDTH,
+                    maxWidth);
+        }
+    }
+
+    private int next() {
+        if (mIndex == mFirstLines.length) {
+            mIndex = 0;
+        }
+        return mIndex++;
+    }
+
+    @Benchmark
+    public String firstLine() {
+        return mEllipsizer.ellipsize(mFirstLines[next()], CallerInfoCorpus.FIRST_LINE_TEXT_SIZE,
+                CallerInfoCorpus.FIRST_LINE_TYPEFACE, CallerInfoCorpus.FIRST_LINE_EXTRA_WIDTH,
+                maxWidth);
+    }
+
+    @Benchmark
+    public String secondLine() {
+        return mEllipsizer.ellipsize(mSecondLines[next()], CallerInfoCorpus.SECOND_LINE_TEXT_SIZE,
+                CallerInfoCorpus.SECOND_LINE_TYPEFACE, 0, maxWidth);
+    }
+
+    @Benchmark
+    public String cacheHit() {
+        return mEllipsizer.getDisplayText(mFirstLines[next()],
+                CallerInfoCorpus.FIRST_LINE_TEXT_SIZE, CallerInfoCorpus.FIRST_LINE_TYPEFACE,
+                CallerInfoCorpus.FIRST_LINE_EXTRA_WIDTH, maxWidth);
+    }
+
+    /** 每次多一位, 输入完后从第一位重新开始 */
+    @Benchmark
+    public String dial() {
+        if (mDialIndex == mDialPrefixes.length) {
+            mDialIndex = 0;
+        }
+        return mEllipsizer.ellipsize(mDialPrefixes[mDialIndex++],
+                CallerInfoCorpus.FIRST_LINE_TEXT_SIZE, CallerInfoCorpus.FIRST_LINE_TYPEFACE,
+                CallerInfoCorpus.FIRST_LINE_EXTRA_WIDTH, maxWidth);
+    }
+}
@@ -0,0 +1,72 @@
+package com.meizu.incallui.widget;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * 进程启动后第一次来电的buildText()(与View无关的部分), 每个fork只执行一次。
+ * warmUp为true时先执行CallerInfoView.warmUp()中的省略计算: 另一个省略实例以最大宽度1省略号码字符, 结果不放入缓存。
+ * 资源, 卡图标, 扩展标签和TextView排版只能在设备上测量, 不在这里。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(30)
+public class FirstBuildBenchmark {
+    /** 与CallerInfoView.WARM_UP_TEXT相同 */
+    private static final String WARM_UP_TEXT = "+86 (0123) 456-789*#.";
+
+    @Param({"false", "true"})
+    public boolean warmUp;
+
+    @Param({"480"})
+    public int maxWidth;
+
+    private CallerInfoEllipsizer mEllipsizer;
+
+    @Setup
+    public void setUp() {
+        // 字体和corpus在两种情况下都已加载, 与view一样在第一次buildText()前创建省略实例
+        if (CallerInfoCorpus.ENTRIES.length == 0) {
+            throw new IllegalStateException("empty corpus");
+        }
+        mEllipsizer = new CallerInfoEllipsizer();
+        if (warmUp) {
+            final CallerInfoEllipsizer ellipsizer = new CallerInfoEllipsizer();
+            ellipsizer.ellipsize(WARM_UP_TEXT, CallerInfoCorpus.FIRST_LINE_TEXT_SIZE,
+                    CallerInfoCorpus.FIRST_LINE_TYPEFACE, 0, 1);
+            ellipsizer.ellipsize(WARM_UP_TEXT, CallerInfoCorpus.SECOND_LINE_TEXT_SIZE,
+                    CallerInfoCorpus.SECOND_LINE_TYPEFACE, 0, 1);
+        }
+    }
+
+    @Benchmark
+    public void firstBuild(Blackhole blackhole) {
+        final CallerInfoEllipsizer ellipsizer = mEllipsizer;
+        final CallerInfoCorpus.Entry entry = CallerInfoCorpus.ENTRIES[0];
+        final String firstLineText = CallerInfoLine.composeFirstLineText(entry.name,
+                entry.number);
+        final String secondLineText = CallerInfoLine.composeSecondLineText(entry.name,
+                entry.number, entry.label, entry.location, null);
+        blackhole.consume(ellipsizer.getDisplayText(firstLineText,
+                CallerInfoCorpus.FIRST_LINE_TEXT_SIZE, CallerInfoCorpus.FIRST_LINE_TYPEFACE,
+                CallerInfoCorpus.FIRST_LINE_EXTRA_WIDTH, maxWidth));
+        blackhole.consume(ellipsizer.getDisplayText(secondLineText,
+                CallerInfoCorpus.SECOND_LINE_TEXT_SIZE, CallerInfoCorpus.SECOND_LINE_TYPEFACE,
+                0, maxWidth));
+    }
+}
@@ -0,0 +1,45 @@
+package com.meizu.incallui.widget;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** 生成两行文案(getFirstLineText()/getSecondLineText()), 每次取corpus中的下一条 */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LineTextBenchmark {
+    private int mIndex;
+
+    private CallerInfoCorpus.Entry next() {
+        final CallerInfoCorpus.Entry[] entries = CallerInfoCorpus.ENTRIES;
+        if (mIndex == entries.length) {
+            mIndex = 0;
+        }
+        return entries[mIndex++];
+    }
+
+    @Benchmark
+    public String firstLine() {
+        final CallerInfoCorpus.Entry entry = next();
+        return CallerInfoLine.composeFirstLineText(entry.name, entry.number);
+    }
+
+    @Benchmark
+    public String secondLine() {
+        final CallerInfoCorpus.Entry entry = next();
+        return CallerInfoLine.composeSecondLineText(entry.name, entry.number, entry.label,
+                entry.location, null);
+    }
+}
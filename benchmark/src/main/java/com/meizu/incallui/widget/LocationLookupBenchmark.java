@@ -0,0 +1,87 @@
+package com.meizu.incallui.widget;
+
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 按号段同步查询归属地(getCachedLocation()), corpus中有归属地的号码都已记录;
+ * 对照组prefixTable在本地生成的离线归属地数据(全部手机号段规模)中按前缀二分查找。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocationLookupBenchmark {
+    /** 离线数据中的手机号段数, 与国内实际号段数量级相同 */
+    private static final int MOBILE_PREFIXES = 300000;
+
+    private PrefixTableLookup mPrefixTable;
+    private int mIndex;
+
+    @Setup
+    public void setUp() {
+        LocationPrefixCache.clear();
+        for (CallerInfoCorpus.Entry entry : CallerInfoCorpus.ENTRIES) {
+            LocationPrefixCache.put(entry.number, entry.location);
+        }
+        mPrefixTable = new PrefixTableLookup(createDataset());
+    }
+
+    private static TreeMap<Long, String> createDataset() {
+        final TreeMap<Long, String> table = new TreeMap<Long, String>();
+        final Random random = new Random(0);
+        while (table.size() < MOBILE_PREFIXES) {
+            // 86 + 130~199 + 4位
+            table.put(861300000L + random.nextInt(700000), "城市" + random.nextInt(340));
+        }
+        for (int code = 10; code < 1000; code++) {
+            if (code < 30 || code >= 300) {
+                table.put(8600L * (code < 100 ? 1 : 10) + code, "区号" + code);
+            }
+        }
+        for (CallerInfoCorpus.Entry entry : CallerInfoCorpus.ENTRIES) {
+            final long e164 = PrefixTableLookup.toE164(entry.number);
+            final String digits = Long.toString(e164);
+            if (entry.location == null || e164 < 0 || !digits.startsWith("86")) {
+                // 只有国内的号码有归属地数据
+                continue;
+            }
+            final int length = digits.charAt(2) == '1' && digits.length() == 13 ? 9
+                    : digits.charAt(2) == '1' || digits.charAt(2) == '2' ? 4 : 5;
+            table.put(Long.parseLong(digits.substring(0, length)), entry.location);
+        }
+        return table;
+    }
+
+    private String nextNumber() {
+        final CallerInfoCorpus.Entry[] entries = CallerInfoCorpus.ENTRIES;
+        if (mIndex == entries.length) {
+            mIndex = 0;
+        }
+        return entries[mIndex++].number;
+    }
+
+    @Benchmark
+    public String lookup() {
+        return LocationPrefixCache.get(nextNumber());
+    }
+
+    @Benchmark
+    public String prefixTable() {
+        return mPrefixTable.get(nextNumber());
+    }
+}
@@ -0,0 +1,70 @@
+package com.meizu.incallui.widget;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** 整串measure: 直接用Paint与按字缓存宽度的比较 */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MeasureBenchmark {
+    @Param({"paint", "glyphCache"})
+    public String measurer;
+
+    private TextMeasurer mMeasurer;
+    private String[] mFirstLines;
+    private String[] mSecondLines;
+    private int mIndex;
+
+    @Setup
+    public void setUp() {
+        mMeasurer = "paint".equals(measurer) ? new PaintTextMeasurer()
+                : new GlyphCacheTextMeasurer(new PaintTextMeasurer());
+        final CallerInfoCorpus.Entry[] entries = CallerInfoCorpus.ENTRIES;
+        mFirstLines = new String[entries.length];
+        mSecondLines = new String[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            final CallerInfoCorpus.Entry entry = entries[i];
+            mFirstLines[i] = CallerInfoLine.composeFirstLineText(entry.name, entry.number);
+            mSecondLines[i] = CallerInfoLine.composeSecondLineText(entry.name, entry.number,
+                    entry.label, entry.location, null);
+        }
+    }
+
+    private int next() {
+        if (mIndex == mFirstLines.length) {
+            mIndex = 0;
+        }
+        return mIndex++;
+    }
+
+    @Benchmark
+    public float firstLine() {
+        final String text = mFirstLines[next()];
+        mMeasurer.setTextStyle(CallerInfoCorpus.FIRST_LINE_TYPEFACE,
+                CallerInfoCorpus.FIRST_LINE_TEXT_SIZE);
+        return mMeasurer.measureText(text, 0, text.length());
+    }
+
+    @Benchmark
+    public float secondLine() {
+        final String text = mSecondLines[next()];
+        mMeasurer.setTextStyle(CallerInfoCorpus.SECOND_LINE_TYPEFACE,
+                CallerInfoCorpus.SECOND_LINE_TEXT_SIZE);
+        return mMeasurer.measureText(text, 0, text.length());
+    }
+}
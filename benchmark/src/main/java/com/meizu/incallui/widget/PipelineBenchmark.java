@@ -0,0 +1,68 @@
+package com.meizu.incallui.widget;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * buildText()中与View无关的部分: 生成两行文案并得到两行省略后的文字, 与CallerInfoView一样经过共用的省略结果缓存。
+ * span设置和setText()依赖android.text的排版, 不在这里测试。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PipelineBenchmark {
+    @Param({"480", "900"})
+    public int maxWidth;
+
+    private final CallerInfoEllipsizer mEllipsizer = new CallerInfoEllipsizer();
+    private int mIndex;
+
+    @Setup
+    public void setUp() {
+        CallerInfoDisplayTextCache.invalidate();
+    }
+
+    private void build(CallerInfoCorpus.Entry entry, Blackhole blackhole) {
+        final String firstLineText = CallerInfoLine.composeFirstLineText(entry.name,
+                entry.number);
+        final String secondLineText = CallerInfoLine.composeSecondLineText(entry.name,
+                entry.number, entry.label, entry.location, null);
+        blackhole.consume(mEllipsizer.getDisplayText(firstLineText,
+                CallerInfoCorpus.FIRST_LINE_TEXT_SIZE, CallerInfoCorpus.FIRST_LINE_TYPEFACE,
+                CallerInfoCorpus.FIRST_LINE_EXTRA_WIDTH, maxWidth));
+        blackhole.consume(mEllipsizer.getDisplayText(secondLineText,
+                CallerInfoCorpus.SECOND_LINE_TEXT_SIZE, CallerInfoCorpus.SECOND_LINE_TYPEFACE,
+                0, maxWidth));
+    }
+
+    /** 每次都是不同的来电, corpus两行的文字多于缓存大小, 大部分不命中 */
+    @Benchmark
+    public void newCall(Blackhole blackhole) {
+        final CallerInfoCorpus.Entry[] entries = CallerInfoCorpus.ENTRIES;
+        if (mIndex == entries.length) {
+            mIndex = 0;
+        }
+        build(entries[mIndex++], blackhole);
+    }
+
+    /** 同一通电话的重复刷新(通话状态, 计时变化), 全部命中缓存 */
+    @Benchmark
+    public void sameCall(Blackhole blackhole) {
+        build(CallerInfoCorpus.ENTRIES[0], blackhole);
+    }
+}
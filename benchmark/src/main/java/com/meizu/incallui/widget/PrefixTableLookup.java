@@ -0,0 +1,95 @@
+package com.meizu.incallui.widget;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 对照组: 离线归属地数据的查找方式(与libphonenumber PhonePrefixMap相同), 即目前等待归属地查询时走的路径。
+ * 号码先转为不带'+'的E.164数字, 再从最长的前缀长度开始在有序的前缀数组中二分查找。
+ */
+final class PrefixTableLookup {
+    private final long[] mPrefixes;
+    private final String[] mLocations;
+    /** 数据中出现的前缀位数, 从长到短 */
+    private final int[] mLengths;
+
+    /** @param table E.164前缀(如861381234, 86755)到归属地 */
+    PrefixTableLookup(TreeMap<Long, String> table) {
+        mPrefixes = new long[table.size()];
+        mLocations = new String[table.size()];
+        final boolean[] lengths = new boolean[19];
+        int i = 0;
+        for (Map.Entry<Long, String> entry : table.entrySet()) {
+            mPrefixes[i] = entry.getKey();
+            mLocations[i] = entry.getValue();
+            lengths[Long.toString(entry.getKey()).length()] = true;
+            i++;
+        }
+        int count = 0;
+        final int[] sorted = new int[lengths.length];
+        for (int length = lengths.length - 1; length > 0; length--) {
+            if (lengths[length]) {
+                sorted[count++] = length;
+            }
+        }
+        mLengths = Arrays.copyOf(sorted, count);
+    }
+
+    String get(String number) {
+        final long e164 = toE164(number);
+        if (e164 < 0) {
+            return null;
+        }
+        final int digits = Long.toString(e164).length();
+        for (int length : mLengths) {
+            if (length > digits) {
+                continue;
+            }
+            long prefix = e164;
+            for (int i = length; i < digits; i++) {
+                prefix /= 10;
+            }
+            final int index = Arrays.binarySearch(mPrefixes, prefix);
+            if (index >= 0) {
+                return mLocations[index];
+            }
+        }
+        return null;
+    }
+
+    /** +86/0086/86开头或国内号码(去掉区号前的0)转为86开头, 其它国家码保持原样; 无法转换时返回-1 */
+    static long toE164(String number) {
+        final StringBuilder digits = new StringBuilder(number.length());
+        boolean plus = false;
+        for (int i = 0; i < number.length(); i++) {
+            final char c = number.charAt(i);
+            if (c == '+' && digits.length() == 0) {
+                plus = true;
+            } else if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        String text = digits.toString();
+        if (text.startsWith("00")) {
+            text = text.substring(2);
+            plus = true;
+        } else if (text.length() == 13 && text.startsWith("86")) {
+            plus = true;
+        }
+        if (plus) {
+            if (text.startsWith("860")) {
+                text = "86" + text.substring(3);
+            }
+        } else {
+            if (text.startsWith("0")) {
+                text = text.substring(1);
+            }
+            text = "86" + text;
+        }
+        if (text.length() < 4 || text.length() > 18) {
+            return -1;
+        }
+        return Long.parseLong(text);
+    }
+}
@@ -0,0 +1,10 @@
+package android.content.res;
+
+import java.util.Locale;
+
+/** 基准测试用的Configuration, 只包含被测代码用到的字段 */
+public class Configuration {
+    public float fontScale = 1f;
+    public int densityDpi = 480;
+    public Locale locale = Locale.SIMPLIFIED_CHINESE;
+}
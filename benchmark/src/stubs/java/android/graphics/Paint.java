@@ -0,0 +1,82 @@
+package android.graphics;
+
+import java.awt.Font;
+import java.awt.font.FontRenderContext;
+
+/**
+ * 基准测试用的Paint, 只实现文字宽度相关的方法, 由java.awt.Font计算(headless)。
+ * <p>
+ * 每次measure都会整串排版并分配结果对象, 代价接近Android上经过JNI和minikin的measureText(),
+ * 绝对耗时与手机上不同, 只用于同一台机器上不同版本之间的比较。
+ * </p>
+ */
+public class Paint {
+    public static final int ANTI_ALIAS_FLAG = 1;
+
+    private static final FontRenderContext FRC = new FontRenderContext(null, true, true);
+
+    private Typeface mTypeface = Typeface.DEFAULT;
+    private float mTextSize = 12;
+    private Font mFont;
+
+    public Paint() {
+    }
+
+    public Paint(int flags) {
+    }
+
+    public Typeface setTypeface(Typeface typeface) {
+        mTypeface = typeface == null ? Typeface.DEFAULT : typeface;
+        mFont = null;
+        return typeface;
+    }
+
+    public Typeface getTypeface() {
+        return mTypeface;
+    }
+
+    public void setTextSize(float textSize) {
+        if (mTextSize != textSize) {
+            mTextSize = textSize;
+            mFont = null;
+        }
+    }
+
+    public float getTextSize() {
+        return mTextSize;
+    }
+
+    public float measureText(String text) {
+        return measureText(text, 0, text.length());
+    }
+
+    public float measureText(String text, int start, int end) {
+        if (start == end) {
+            return 0;
+        }
+        return (float) font().getStringBounds(text, start, end, FRC).getWidth();
+    }
+
+    public float measureText(char[] text, int index, int count) {
+        if (count == 0) {
+            return 0;
+        }
+        return (float) font().getStringBounds(text, index, index + count, FRC).getWidth();
+    }
+
+    public int getTextWidths(String text, float[] widths) {
+        final int length = text.length();
+        final Font font = font();
+        for (int i = 0; i < length; i++) {
+            widths[i] = (float) font.getStringBounds(text, i, i + 1, FRC).getWidth();
+        }
+        return length;
+    }
+
+    private Font font() {
+        if (mFont == null) {
+            mFont = mTypeface.font.deriveFont(mTextSize);
+        }
+        return mFont;
+    }
+}
@@ -0,0 +1,62 @@
+package android.graphics;
+
+import java.awt.Font;
+import java.util.HashMap;
+
+/**
+ * 基准测试用的Typeface: 对应一个java.awt.Font, 同样的(family, style)返回同一个实例,
+ * 与Android上Typeface.create()的缓存一致, 各缓存按引用比较时行为相同。
+ */
+public class Typeface {
+    public static final int NORMAL = 0;
+    public static final int BOLD = 1;
+    public static final int ITALIC = 2;
+    public static final int BOLD_ITALIC = 3;
+
+    private static final HashMap<String, Typeface> sCache = new HashMap<String, Typeface>();
+
+    public static final Typeface DEFAULT = create(Font.SANS_SERIF, NORMAL);
+
+    private final String mFamily;
+    private final int mStyle;
+    /** 字体大小为1的字体, Paint按字体大小派生 */
+    final Font font;
+
+    private Typeface(String family, int style) {
+        mFamily = family;
+        mStyle = style;
+        font = new Font(family, toAwtStyle(style), 1);
+    }
+
+    public static Typeface create(String familyName, int style) {
+        final String family = familyName == null ? Font.SANS_SERIF : familyName;
+        final String key = family + '#' + style;
+        synchronized (sCache) {
+            Typeface typeface = sCache.get(key);
+            if (typeface == null) {
+                typeface = new Typeface(family, style);
+                sCache.put(key, typeface);
+            }
+            return typeface;
+        }
+    }
+
+    public static Typeface create(Typeface family, int style) {
+        return create(family == null ? null : family.mFamily, style);
+    }
+
+    public int getStyle() {
+        return mStyle;
+    }
+
+    private static int toAwtStyle(int style) {
+        int awtStyle = Font.PLAIN;
+        if ((style & BOLD) != 0) {
+            awtStyle |= Font.BOLD;
+        }
+        if ((style & ITALIC) != 0) {
+            awtStyle |= Font.ITALIC;
+        }
+        return awtStyle;
+    }
+}
@@ -0,0 +1,93 @@
+package android.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 基准测试用的LruCache, 与Android的实现一样基于按访问顺序排列的LinkedHashMap。
+ * 淘汰时与Android一样直接取最久未使用的一项, 不分配迭代器, 不影响分配统计
+ */
+public class LruCache<K, V> {
+    private final LinkedHashMap<K, V> mMap;
+    private final int mMaxSize;
+    private int mHitCount;
+    private int mMissCount;
+    private int mEvictionCount;
+
+    public LruCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize <= 0");
+        }
+        mMaxSize = maxSize;
+        mMap = new LinkedHashMap<K, V>(0, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() <= mMaxSize) {
+                    return false;
+                }
+                mEvictionCount++;
+                entryRemoved(true, eldest.getKey(), eldest.getValue(), null);
+                return true;
+            }
+        };
+    }
+
+    public final synchronized V get(K key) {
+        final V value = mMap.get(key);
+        if (value != null) {
+            mHitCount++;
+        } else {
+            mMissCount++;
+        }
+        return value;
+    }
+
+    public final synchronized V put(K key, V value) {
+        final V previous = mMap.put(key, value);
+        if (previous != null) {
+            entryRemoved(false, key, previous, value);
+        }
+        return previous;
+    }
+
+    public final synchronized V remove(K key) {
+        final V previous = mMap.remove(key);
+        if (previous != null) {
+            entryRemoved(false, key, previous, null);
+        }
+        return previous;
+    }
+
+    protected void entryRemoved(boolean evicted, K key, V oldValue, V newValue) {
+    }
+
+    public final synchronized void evictAll() {
+        final ArrayList<Map.Entry<K, V>> entries = new ArrayList<Map.Entry<K, V>>(mMap.entrySet());
+        mMap.clear();
+        for (Map.Entry<K, V> entry : entries) {
+            mEvictionCount++;
+            entryRemoved(true, entry.getKey(), entry.getValue(), null);
+        }
+    }
+
+    public final synchronized int size() {
+        return mMap.size();
+    }
+
+    public final synchronized int maxSize() {
+        return mMaxSize;
+    }
+
+    public final synchronized int hitCount() {
+        return mHitCount;
+    }
+
+    public final synchronized int missCount() {
+        return mMissCount;
+    }
+
+    public final synchronized int evictionCount() {
+        return mEvictionCount;
+    }
+}
@@ -0,0 +1,9 @@
+package com.meizu.incallui.utils;
+
+/** 基准测试用的DbgUtils, 调试日志和统计关闭, 与release版本一致 */
+public final class DbgUtils {
+    public static boolean DBG_CIV = false;
+
+    private DbgUtils() {
+    }
+}
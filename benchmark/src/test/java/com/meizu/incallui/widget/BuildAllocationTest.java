@@ -0,0 +1,135 @@
+package com.meizu.incallui.widget;
+
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * buildText()中与View无关部分(生成文案, 省略, 省略结果缓存)的分配量, 按CallerInfoView.buildDirtyLines()的步骤执行:
+ * 数据不变时不分配; 内容变化时只分配拼接的文案, 省略后的文字和缓存项。
+ * 用ThreadMXBean统计当前线程分配的字节数, 先执行一遍预热再统计。
+ */
+public class BuildAllocationTest {
+    private static final int ITERATIONS = 20000;
+    /** 与缓存大小无关的不同号码数, 保证每次都不命中 */
+    private static final int UNIQUE_CALLS = ITERATIONS * 2;
+    private static final int MAX_WIDTH = 480;
+
+    private final com.sun.management.ThreadMXBean mThreadBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final CallerInfoEllipsizer mEllipsizer = new CallerInfoEllipsizer();
+    private final CallerInfoLine mFirstLine = new CallerInfoLine();
+    private final CallerInfoLine mSecondLine = new CallerInfoLine();
+
+    @Before
+    public void setUp() {
+        CallerInfoDisplayTextCache.invalidate();
+        assertTrue(mThreadBean.isThreadAllocatedMemorySupported());
+        mThreadBean.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    /** 同一通电话重复刷新: 文案和省略结果都复用 */
+    @Test
+    public void unchangedInfosDoNotAllocate() {
+        final CallerInfoCorpus.Entry entry = CallerInfoCorpus.ENTRIES[0];
+        final long bytes = bytesPerBuild(new Runnable() {
+            @Override
+            public void run() {
+                build(entry, false);
+            }
+        });
+        assertBudget("unchanged", bytes, 0);
+    }
+
+    /** 在几通电话间切换: 重新拼接第二行, 省略结果命中缓存 */
+    @Test
+    public void cachedContentAllocatesOnlyComposedText() {
+        final CallerInfoCorpus.Entry[] entries = new CallerInfoCorpus.Entry[8];
+        System.arraycopy(CallerInfoCorpus.ENTRIES, 0, entries, 0, entries.length);
+        final long bytes = bytesPerBuild(new Runnable() {
+            private int mIndex;
+
+            @Override
+            public void run() {
+                build(entries[mIndex++ & 7], true);
+            }
+        });
+        // 第二行"号码  归属地"一个String
+        assertBudget("cached", bytes, 96);
+    }
+
+    /** 每次都是新号码: 拼接, 省略, 放入缓存 */
+    @Test
+    public void newContentStaysWithinBudget() {
+        final CallerInfoCorpus.Entry[] entries = new CallerInfoCorpus.Entry[UNIQUE_CALLS];
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = new CallerInfoCorpus.Entry("联系人" + i, "138" + (10000000 + i),
+                    "广东 深圳", null);
+        }
+        final long bytes = bytesPerBuild(new Runnable() {
+            private int mIndex;
+
+            @Override
+            public void run() {
+                build(entries[mIndex++], true);
+            }
+        });
+        // 第二行文案, 两行省略后的文字各一个String, 两行各一个缓存项(LruCache的entry, key复用被淘汰的), 约270
+        assertBudget("new content", bytes, 320);
+    }
+
+    /** 与CallerInfoView.buildDirtyLines()相同: 只重新生成dirty的行, 输入不变时不省略 */
+    private void build(CallerInfoCorpus.Entry entry, boolean dataChanged) {
+        if (dataChanged) {
+            mFirstLine.dirty = true;
+            mSecondLine.dirty = true;
+        }
+        if (mFirstLine.dirty) {
+            mFirstLine.setText(CallerInfoLine.composeFirstLineText(entry.name, entry.number));
+        }
+        if (mSecondLine.dirty) {
+            mSecondLine.setText(CallerInfoLine.composeSecondLineText(entry.name, entry.number,
+                    entry.label, entry.location, null));
+        }
+        ellipsize(mFirstLine, CallerInfoCorpus.FIRST_LINE_TEXT_SIZE,
+                CallerInfoCorpus.FIRST_LINE_TYPEFACE, CallerInfoCorpus.FIRST_LINE_EXTRA_WIDTH);
+        ellipsize(mSecondLine, CallerInfoCorpus.SECOND_LINE_TEXT_SIZE,
+                CallerInfoCorpus.SECOND_LINE_TYPEFACE, 0);
+    }
+
+    private void ellipsize(CallerInfoLine line, int textSize, android.graphics.Typeface typeface,
+            int extraWidth) {
+        if (!line.isDisplayTextValid(textSize, typeface, extraWidth, MAX_WIDTH)) {
+            line.setDisplayText(mEllipsizer.getDisplayText(line.text, textSize, typeface,
+                    extraWidth, MAX_WIDTH), line.text, textSize, typeface, extraWidth, MAX_WIDTH);
+        }
+    }
+
+    /** 先执行ITERATIONS次预热, 再统计ITERATIONS次的平均分配字节数 */
+    private long bytesPerBuild(Runnable build) {
+        for (int i = 0; i < ITERATIONS; i++) {
+            build.run();
+        }
+        final long empty = allocatedBytes();
+        final long start = allocatedBytes();
+        for (int i = 0; i < ITERATIONS; i++) {
+            build.run();
+        }
+        final long end = allocatedBytes();
+        // 减去一次统计本身的分配
+        return Math.max(0, end - start - (start - empty)) / ITERATIONS;
+    }
+
+    private long allocatedBytes() {
+        return mThreadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static void assertBudget(String scenario, long bytes, long budget) {
+        System.out.println(scenario + ": " + bytes + " B/build");
+        assertTrue(scenario + ": " + bytes + " B/build > " + budget, bytes <= budget);
+    }
+}
@@ -0,0 +1,105 @@
+package com.meizu.incallui.widget;
+
+import static org.junit.Assert.assertEquals;
+
+import android.graphics.Typeface;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * 省略结果与原逐字缩减的实现(CallerInfoView.computeDisplayText())完全一致:
+ * 随机文字经过追加, 删除, 替换的编辑序列, 覆盖增量计算(号码逐位变化)和整串重新计算两条路径
+ */
+public class EllipsizerEquivalenceTest {
+    private static final int STEPS = 100000;
+    private static final String ALPHABET = "0123456789+-  .()*#abcdefgXYZ张三李四王小明";
+
+    @Test
+    public void paintMeasurerMatchesOriginalLoop() {
+        checkEquivalence(new PaintTextMeasurer(), new PaintTextMeasurer(), 1);
+    }
+
+    @Test
+    public void glyphCacheMeasurerMatchesOriginalLoop() {
+        checkEquivalence(new GlyphCacheTextMeasurer(new PaintTextMeasurer()),
+                new GlyphCacheTextMeasurer(new PaintTextMeasurer()), 2);
+    }
+
+    private static void checkEquivalence(TextMeasurer measurer, TextMeasurer reference,
+            long seed) {
+        final Random random = new Random(seed);
+        final CallerInfoEllipsizer ellipsizer = new CallerInfoEllipsizer(measurer);
+        final Typeface[] typefaces = {
+                CallerInfoCorpus.FIRST_LINE_TYPEFACE, CallerInfoCorpus.SECOND_LINE_TYPEFACE
+        };
+        final int[] textSizes = {
+                CallerInfoCorpus.FIRST_LINE_TEXT_SIZE, CallerInfoCorpus.SECOND_LINE_TEXT_SIZE
+        };
+        final StringBuilder text = new StringBuilder();
+        for (int step = 0; step < STEPS; step++) {
+            edit(text, random);
+            // 大部分步骤字体不变, 保留增量计算的状态
+            final int style = random.nextInt(50) == 0 ? 1 : 0;
+            final int extraWidth = random.nextBoolean() ? 0 : CallerInfoCorpus.FIRST_LINE_EXTRA_WIDTH;
+            final int maxWidth = 100 + random.nextInt(900);
+            final String input = text.toString();
+            reference.setTextStyle(typefaces[style], textSizes[style]);
+            final String expected = originalDisplayText(input, reference, extraWidth, maxWidth);
+            final String actual = ellipsizer.ellipsize(input, textSizes[style], typefaces[style],
+                    extraWidth, maxWidth);
+            assertEquals("step " + step + ": \"" + input + "\", extraWidth " + extraWidth
+                    + ", maxWidth " + maxWidth, expected, actual);
+        }
+    }
+
+    /** 拨号时逐位追加最多, 其次是删除, 替换和换成新的号码 */
+    private static void edit(StringBuilder text, Random random) {
+        final int op = random.nextInt(10);
+        if (op < 5 || text.length() == 0) {
+            text.append(randomChar(random));
+        } else if (op < 7) {
+            text.setLength(text.length() - 1);
+        } else if (op < 8) {
+            text.deleteCharAt(random.nextInt(text.length()));
+        } else if (op < 9) {
+            text.setCharAt(random.nextInt(text.length()), randomChar(random));
+        } else {
+            text.setLength(0);
+            final int length = random.nextInt(40);
+            for (int i = 0; i < length; i++) {
+                text.append(randomChar(random));
+            }
+        }
+        if (text.length() > 60) {
+            text.setLength(0);
+        }
+    }
+
+    private static char randomChar(Random random) {
+        return ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+    }
+
+    /** 原CallerInfoView.computeDisplayText()的逐字缩减, 只把Paint换成measurer */
+    private static String originalDisplayText(String originalText, TextMeasurer measurer,
+            int extraWidth, int maxWidth) {
+        String ret = originalText;
+        int textWidth = (int) measurer.measureText(ret, 0, ret.length());
+        while (!CallerInfoEllipsizer.okToShowAsSingleline(textWidth, extraWidth, maxWidth)) {
+            if (ret.length() > 2) {
+                ret = ret.substring(0, ret.length() - 1);
+                ret = ret.trim();
+                String newStr = ret + "...";
+                textWidth = (int) measurer.measureText(newStr, 0, newStr.length());
+                if (CallerInfoEllipsizer.okToShowAsSingleline(textWidth, extraWidth, maxWidth)) {
+                    ret = newStr;
+                    break;
+                }
+            } else {
+                break;
+            }
+        }
+        return ret;
+    }
+}
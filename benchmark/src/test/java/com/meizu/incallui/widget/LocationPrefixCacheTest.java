@@ -0,0 +1,84 @@
+package com.meizu.incallui.widget;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/** 同一号段的各种写法(国家码, 加拨0, 分隔符)得到同一个归属地, 不同号段和其它国家的号码互不影响 */
+public class LocationPrefixCacheTest {
+    @Before
+    public void setUp() {
+        LocationPrefixCache.clear();
+    }
+
+    @Test
+    public void mobileNumberFormsShareSevenDigitPrefix() {
+        LocationPrefixCache.put("13812345678", "广东 深圳");
+        assertEquals("广东 深圳", LocationPrefixCache.get("13812340000"));
+        assertEquals("广东 深圳", LocationPrefixCache.get("+86 138 1234 0001"));
+        assertEquals("广东 深圳", LocationPrefixCache.get("008613812340002"));
+        assertEquals("广东 深圳", LocationPrefixCache.get("8613812340003"));
+        assertEquals("广东 深圳", LocationPrefixCache.get("013812340004"));
+        assertEquals("广东 深圳", LocationPrefixCache.get("+86 013812340005"));
+        assertNull(LocationPrefixCache.get("13812350000"));
+    }
+
+    @Test
+    public void zeroPrefixedMobileIsNotKeyedByAreaCode() {
+        LocationPrefixCache.put("013812345678", "广东 深圳");
+        LocationPrefixCache.put("013912345678", "北京");
+        assertEquals("广东 深圳", LocationPrefixCache.get("13812345600"));
+        assertEquals("北京", LocationPrefixCache.get("13912345600"));
+    }
+
+    @Test
+    public void threeDigitAreaCodes() {
+        LocationPrefixCache.put("010-12345678", "北京");
+        LocationPrefixCache.put("02112345678", "上海");
+        LocationPrefixCache.put("020 8765 4321", "广东 广州");
+        assertEquals("北京", LocationPrefixCache.get("01087654321"));
+        assertEquals("北京", LocationPrefixCache.get("+86 10 8765 4321"));
+        assertEquals("北京", LocationPrefixCache.get("+86 010 8765 4321"));
+        assertEquals("上海", LocationPrefixCache.get("021 6123 4567"));
+        assertEquals("广东 广州", LocationPrefixCache.get("0086 20 1234 5678"));
+    }
+
+    @Test
+    public void fourDigitAreaCodes() {
+        LocationPrefixCache.put("0755-26000000", "广东 深圳");
+        LocationPrefixCache.put("057188880000", "浙江 杭州");
+        assertEquals("广东 深圳", LocationPrefixCache.get("075586000000"));
+        assertEquals("广东 深圳", LocationPrefixCache.get("+86 755 8765 4321"));
+        assertEquals("广东 深圳", LocationPrefixCache.get("86 755 1234 5678"));
+        assertEquals("浙江 杭州", LocationPrefixCache.get("0571-12345678"));
+        assertNull(LocationPrefixCache.get("0756-12345678"));
+    }
+
+    @Test
+    public void shortAndServiceNumbersAreNotCached() {
+        LocationPrefixCache.put("10086", "中国移动");
+        LocationPrefixCache.put("95588", "工商银行");
+        assertNull(LocationPrefixCache.get("10086"));
+        assertNull(LocationPrefixCache.get("95588"));
+    }
+
+    @Test
+    public void foreignCountryCodesAreNotCached() {
+        LocationPrefixCache.put("+1 650 253 0000", "美国");
+        LocationPrefixCache.put("0085212345678", "香港");
+        LocationPrefixCache.put("0085312345678", "澳门");
+        assertNull(LocationPrefixCache.get("+1 650 253 0001"));
+        assertNull(LocationPrefixCache.get("0085212345679"));
+        assertNull(LocationPrefixCache.get("0085312345679"));
+        // 不能占用国内号段
+        assertNull(LocationPrefixCache.get("16502530000"));
+        assertNull(LocationPrefixCache.get("0085"));
+
+        LocationPrefixCache.put("16502530000", "北京");
+        assertEquals("北京", LocationPrefixCache.get("16502530001"));
+        assertNull(LocationPrefixCache.get("+1 650 253 0001"));
+        assertEquals("北京", LocationPrefixCache.get("+86 165 0253 0001"));
+    }
+}
@@ -0,0 +1,20 @@
+package com.android.incallui;
+
+/** 测试用的Call, 只有扩展标签用到的类型 */
+public class Call {
+    private final boolean mCallbackCall;
+    private final boolean mWebCall;
+
+    public Call(boolean callbackCall, boolean webCall) {
+        mCallbackCall = callbackCall;
+        mWebCall = webCall;
+    }
+
+    public boolean isCallbackCall() {
+        return mCallbackCall;
+    }
+
+    public boolean isWebCall() {
+        return mWebCall;
+    }
+}
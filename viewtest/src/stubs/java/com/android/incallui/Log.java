@@ -0,0 +1,10 @@
+package com.android.incallui;
+
+/** 测试用的Log, 不输出 */
+public class Log {
+    private Log() {
+    }
+
+    public static void d(String tag, String msg) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.android.incallui;
+
+/** 测试用的R, 只有CallerInfoView用到的资源, 值在src/test/res中 */
+public final class R {
+    private R() {
+    }
+
+    public static final class dimen {
+        public static final int text_size_big = 0x7f050000;
+        public static final int text_size_secondary = 0x7f050001;
+        public static final int mz_callcard_extra_icon_text_size = 0x7f050002;
+        public static final int mz_callcard_extra_icon_padding_horizontal = 0x7f050003;
+        public static final int mz_callcard_extra_icon_padding_vertical = 0x7f050004;
+        public static final int mz_callcard_extra_icon_bg_rect_radius = 0x7f050005;
+        public static final int mz_callcard_extra_icon_margin_top = 0x7f050006;
+        public static final int mz_callcard_extra_icon_margin_left = 0x7f050007;
+        public static final int mz_caller_info_sim_icon_margin_top = 0x7f050008;
+
+        private dimen() {
+        }
+    }
+
+    public static final class color {
+        public static final int incall_text_color_secondary = 0x7f040000;
+
+        private color() {
+        }
+    }
+
+    public static final class string {
+        public static final int text_callback = 0x7f0a0000;
+        public static final int web_call_tag = 0x7f0a0001;
+
+        private string() {
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.meizu.incallui.ui;
+
+/** 测试用的InCallTypeface, 使用系统字体 */
+public final class InCallTypeface {
+    private InCallTypeface() {
+    }
+
+    public static String getMediumTypeface() {
+        return "sans-serif-medium";
+    }
+
+    public static String getDefaultTypeface() {
+        return "sans-serif";
+    }
+}
@@ -0,0 +1,26 @@
+package com.meizu.incallui.ui;
+
+import android.graphics.drawable.Drawable;
+import android.graphics.drawable.ShapeDrawable;
+
+/** 测试用的SimSlotIndicatorHelper: 卡槽0, 1都有图标, 大小固定 */
+public final class SimSlotIndicatorHelper {
+    public static final int ICON_SIZE = 36;
+
+    private SimSlotIndicatorHelper() {
+    }
+
+    public static boolean okToShowSimSlotIndicator() {
+        return true;
+    }
+
+    public static Drawable getSimIndicatorDrawable(int slotId) {
+        if (slotId != 0 && slotId != 1) {
+            return null;
+        }
+        final ShapeDrawable drawable = new ShapeDrawable();
+        drawable.setIntrinsicWidth(ICON_SIZE);
+        drawable.setIntrinsicHeight(ICON_SIZE);
+        return drawable;
+    }
+}
@@ -0,0 +1,42 @@
+package com.meizu.incallui.widget;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.text.style.ReplacementSpan;
+
+/** 测试用的RadiusBackgroundSpan: 圆角矩形背景上的文字 */
+public class RadiusBackgroundSpan extends ReplacementSpan {
+    private final RectF mRect = new RectF();
+    private int mPaddingHorizontal;
+    private int mPaddingVertical;
+    private int mRadius;
+
+    public void setPadding(int horizontal, int vertical) {
+        mPaddingHorizontal = horizontal;
+        mPaddingVertical = vertical;
+    }
+
+    public void setRadius(int radius) {
+        mRadius = radius;
+    }
+
+    @Override
+    public int getSize(Paint paint, CharSequence text, int start, int end,
+            Paint.FontMetricsInt fm) {
+        return (int) Math.ceil(paint.measureText(text, start, end)) + 2 * mPaddingHorizontal;
+    }
+
+    @Override
+    public void draw(Canvas canvas, CharSequence text, int start, int end, float x, int top,
+            int y, int bottom, Paint paint) {
+        final int color = paint.getColor();
+        paint.setColor(Color.GRAY);
+        mRect.set(x, top, x + getSize(paint, text, start, end, null), bottom);
+        canvas.drawRoundRect(mRect, mRadius, mRadius, paint);
+        paint.setColor(Color.WHITE);
+        canvas.drawText(text, start, end, x + mPaddingHorizontal, y, paint);
+        paint.setColor(color);
+    }
+}
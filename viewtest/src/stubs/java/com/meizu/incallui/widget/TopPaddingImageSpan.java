@@ -0,0 +1,34 @@
+package com.meizu.incallui.widget;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.drawable.Drawable;
+import android.text.style.ImageSpan;
+
+/** 测试用的TopPaddingImageSpan: 图标左边留出leftMargin, 距行顶topMargin */
+public class TopPaddingImageSpan extends ImageSpan {
+    private final int mTopMargin;
+    private final int mLeftMargin;
+
+    public TopPaddingImageSpan(Drawable drawable, int topMargin, int leftMargin) {
+        super(drawable);
+        mTopMargin = topMargin;
+        mLeftMargin = leftMargin;
+    }
+
+    @Override
+    public int getSize(Paint paint, CharSequence text, int start, int end,
+            Paint.FontMetricsInt fm) {
+        return super.getSize(paint, text, start, end, fm) + mLeftMargin;
+    }
+
+    @Override
+    public void draw(Canvas canvas, CharSequence text, int start, int end, float x, int top,
+            int y, int bottom, Paint paint) {
+        final Drawable drawable = getDrawable();
+        canvas.save();
+        canvas.translate(x + mLeftMargin, top + mTopMargin);
+        drawable.draw(canvas);
+        canvas.restore();
+    }
+}
@@ -0,0 +1,111 @@
+package com.meizu.incallui.widget;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.text.SpannableString;
+import android.widget.TextView;
+
+import com.android.incallui.Call;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+/**
+ * 一次重建只setText()一次: 只有一次文字变化, 最多一次requestLayout(), 下一帧只measure一次,
+ * 拼接好的Spannable由TextView直接持有, 不复制。
+ * <p>
+ * wrap_content时TextView第一次文字变化就丢弃排版, 之后的append()不再requestLayout(),
+ * 所以多次setText()/append()主要体现在文字变化次数上。
+ * </p>
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 27, manifest = "src/test/AndroidManifest.xml", resourceDir = "res")
+public class ComposeLayoutTest {
+    private TestCallerInfoView mView;
+
+    @Before
+    public void setUp() {
+        mView = new TestCallerInfoView(RuntimeEnvironment.application);
+        mView.setAutoMaxContentWidth(true);
+        mView.setInfos("张三", "13800138000", "广东 深圳", "快递送餐", 0);
+        mView.frame();
+        mView.resetCounts();
+    }
+
+    /** 两行文字, 扩展标签, 卡图标同时变化 */
+    @Test
+    public void rebuildLaysOutOnce() {
+        mView.beginUpdate();
+        mView.setName("欧阳娜娜的同事王小明");
+        mView.setNumber("+86 10 8888 6666");
+        mView.setLabel(null);
+        mView.setLocation("北京");
+        mView.setSimIndicator(1);
+        mView.setExtraIconText(new Call(false, true), false);
+        mView.commitUpdate();
+        assertEquals(1, mView.textChangeCount);
+        assertEquals(1, mView.requestLayoutCount);
+
+        mView.frame();
+        assertEquals(1, mView.measureCount);
+        assertEquals(1, mView.drawCount);
+    }
+
+    /** 不在批量更新中时, 每个setter各重建一次, 每次最多一次requestLayout() */
+    @Test
+    public void eachSetterLaysOutAtMostOnce() {
+        mView.setName("李四");
+        assertEquals(1, mView.textChangeCount);
+        assertTrue(mView.requestLayoutCount <= 1);
+        mView.frame();
+        assertTrue(mView.measureCount <= 1);
+
+        mView.resetCounts();
+        mView.setExtraIconText(new Call(true, false), true);
+        assertEquals(1, mView.textChangeCount);
+        assertTrue(mView.requestLayoutCount <= 1);
+        mView.frame();
+        assertTrue(mView.measureCount <= 1);
+    }
+
+    /** 内容不变时不setText(), 不requestLayout() */
+    @Test
+    public void unchangedInfosDoNotLayOut() {
+        mView.setInfos("张三", "13800138000", "广东 深圳", "快递送餐", 0);
+        mView.frame();
+        assertEquals(0, mView.textChangeCount);
+        assertEquals(0, mView.requestLayoutCount);
+        assertEquals(0, mView.measureCount);
+    }
+
+    @Test
+    public void composedTextIsNotCopied() {
+        final CharSequence text = mView.getText();
+        assertTrue(text instanceof CallerInfoView.ComposedText);
+        mView.frame();
+        assertSame(text, mView.getText());
+    }
+
+    @Test
+    public void factoryKeepsOnlyComposedText() {
+        final TextView textView = new TextView(RuntimeEnvironment.application);
+        textView.setSpannableFactory(CallerInfoView.SPANNABLE_FACTORY);
+        final CallerInfoView.ComposedText composed = new CallerInfoView.ComposedText("张三");
+        textView.setText(composed, TextView.BufferType.SPANNABLE);
+        assertSame(composed, textView.getText());
+
+        // 外部传入的Spannable仍被复制, TextView之后的修改不影响调用方
+        final SpannableString callerText = new SpannableString("李四");
+        textView.setText(callerText, TextView.BufferType.SPANNABLE);
+        assertNotSame(callerText, textView.getText());
+        mView.setText(callerText, TextView.BufferType.SPANNABLE);
+        assertNotSame(callerText, mView.getText());
+    }
+}
@@ -0,0 +1,179 @@
+package com.meizu.incallui.widget;
+
+import static org.junit.Assert.assertTrue;
+
+import com.android.incallui.Call;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+/**
+ * 端到端的渲染预算: 通过公开的set***()设置姓名/号码/备注/归属地/卡槽/扩展标签/视频拨号状态的所有组合,
+ * 每种组合统计一次显示(设置, measure, layout, draw)的耗时和分配量, 超出预算时失败。
+ * <p>
+ * Robolectric中Paint和Canvas由shadow实现, 耗时不等于设备上的耗时, 用于发现buildText()和省略计算的退化。
+ * </p>
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 27, manifest = "src/test/AndroidManifest.xml", resourceDir = "res")
+public class RenderBudgetTest {
+    /** 每种组合的耗时(中位数)预算, 目前最慢的组合约0.5~1ms */
+    private static final long TIME_BUDGET_NANOS = 3 * 1000 * 1000;
+    /** 每种组合的分配量(最小值)预算, 目前最多的组合约11KB */
+    private static final long ALLOCATION_BUDGET_BYTES = 16 * 1024;
+    /** 统计前整个组合矩阵执行的次数 */
+    private static final int WARM_UP_ROUNDS = 3;
+    private static final int REPEAT = 15;
+
+    private static final String[] NAMES = {null, "张三", "欧阳娜娜的同事王小明的爸爸的手机"};
+    private static final String[] NUMBERS = {
+            "13800138000", "+86 10 8888 6666", "1065 5018 8888 8888 8888 8888"
+    };
+    private static final String[] LABELS = {null, "快递送餐"};
+    private static final String[] LOCATIONS = {null, "广东 深圳"};
+    private static final int[] SLOTS = {-1, 0};
+    private static final Call[] CALLS = {
+            null, new Call(true, false), new Call(false, true)
+    };
+    private static final String[] VIDEO_STATUSES = {null, "正在等待对方接受邀请"};
+    /**
+     * 最大宽度: 0为自动(父view宽度), 另一个足够窄, 每一行都需要省略。
+     * Robolectric的Paint每个字宽1px, 宽度按字数计
+     */
+    private static final int[] MAX_WIDTHS = {0, 12};
+
+    private final com.sun.management.ThreadMXBean mThreadBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private TestCallerInfoView mView;
+
+    @Before
+    public void setUp() {
+        mThreadBean.setThreadAllocatedMemoryEnabled(true);
+        mView = new TestCallerInfoView(RuntimeEnvironment.application);
+    }
+
+    @Test
+    public void everyScenarioStaysWithinBudget() {
+        final List<Scenario> scenarios = createScenarios();
+        for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+            for (Scenario scenario : scenarios) {
+                render(scenario);
+            }
+        }
+        final List<String> failures = new ArrayList<String>();
+        final long[] times = new long[REPEAT];
+        long maxTime = 0;
+        long maxBytes = 0;
+        for (Scenario scenario : scenarios) {
+            long bytes = Long.MAX_VALUE;
+            for (int i = 0; i < REPEAT; i++) {
+                final long startBytes = allocatedBytes();
+                final long start = System.nanoTime();
+                render(scenario);
+                times[i] = System.nanoTime() - start;
+                bytes = Math.min(bytes, allocatedBytes() - startBytes);
+            }
+            Arrays.sort(times);
+            final long time = times[REPEAT / 2];
+            maxTime = Math.max(maxTime, time);
+            maxBytes = Math.max(maxBytes, bytes);
+            if (time > TIME_BUDGET_NANOS || bytes > ALLOCATION_BUDGET_BYTES) {
+                failures.add(scenario + ": " + time / 1000 + " us, " + bytes + " B");
+            }
+        }
+        System.out.println(scenarios.size() + " scenarios, max " + maxTime / 1000 + " us, max "
+                + maxBytes + " B");
+        assertTrue(failures.size() + " scenarios over budget ("
+                + TIME_BUDGET_NANOS / 1000 + " us, " + ALLOCATION_BUDGET_BYTES + " B):\n"
+                + failures, failures.isEmpty());
+    }
+
+    /** 回收后通过公开的set***()设置一种组合, 再执行一帧 */
+    private void render(Scenario scenario) {
+        final TestCallerInfoView view = mView;
+        view.recycle();
+        view.resetCounts();
+        if (scenario.maxWidth > 0) {
+            view.setMaxContentWidth(scenario.maxWidth);
+        } else {
+            view.setAutoMaxContentWidth(true);
+        }
+        view.beginUpdate();
+        view.setName(scenario.name);
+        view.setNumber(scenario.number);
+        view.setLabel(scenario.label);
+        view.setLocation(scenario.location);
+        view.setSimIndicator(scenario.slotId);
+        view.setExtraIconText(scenario.call, false);
+        view.setVideoCallDialingStatus(scenario.videoStatus);
+        view.commitUpdate();
+        view.frame();
+    }
+
+    private long allocatedBytes() {
+        return mThreadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static List<Scenario> createScenarios() {
+        final List<Scenario> scenarios = new ArrayList<Scenario>();
+        for (String name : NAMES) {
+            for (String number : NUMBERS) {
+                for (String label : LABELS) {
+                    for (String location : LOCATIONS) {
+                        for (int slotId : SLOTS) {
+                            for (Call call : CALLS) {
+                                for (String videoStatus : VIDEO_STATUSES) {
+                                    for (int maxWidth : MAX_WIDTHS) {
+                                        scenarios.add(new Scenario(name, number, label,
+                                                location, slotId, call, videoStatus, maxWidth));
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return scenarios;
+    }
+
+    private static final class Scenario {
+        final String name;
+        final String number;
+        final String label;
+        final String location;
+        final int slotId;
+        final Call call;
+        final String videoStatus;
+        final int maxWidth;
+
+        Scenario(String name, String number, String label, String location, int slotId,
+                Call call, String videoStatus, int maxWidth) {
+            this.name = name;
+            this.number = number;
+            this.label = label;
+            this.location = location;
+            this.slotId = slotId;
+            this.call = call;
+            this.videoStatus = videoStatus;
+            this.maxWidth = maxWidth;
+        }
+
+        @Override
+        public String toString() {
+            return "[name=" + name + ", number=" + number + ", label=" + label + ", location="
+                    + location + ", slot=" + slotId + ", badge="
+                    + (call == null ? "none" : call.isCallbackCall() ? "callback" : "web")
+                    + ", video=" + videoStatus + ", maxWidth=" + maxWidth + "]";
+        }
+    }
+}
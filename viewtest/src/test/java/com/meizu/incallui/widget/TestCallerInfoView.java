@@ -0,0 +1,181 @@
+package com.meizu.incallui.widget;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.view.ViewGroup;
+
+import java.nio.CharBuffer;
+import java.util.ArrayDeque;
+
+import org.robolectric.Shadows;
+
+/**
+ * 测试用的CallerInfoView: 统计文字变化, requestLayout(), onMeasure()和onDraw()的次数,
+ * 按一帧的顺序measure, layout, draw
+ */
+class TestCallerInfoView extends CallerInfoView {
+    static final int PARENT_WIDTH = 1080;
+
+    private final TextRecordingCanvas mCanvas = new TextRecordingCanvas(
+            Bitmap.createBitmap(PARENT_WIDTH, 400, Bitmap.Config.ARGB_8888));
+
+    /** setText()/append()的次数, 每次都会重新排版(宽度固定时)或丢弃当前排版 */
+    int textChangeCount;
+    int requestLayoutCount;
+    int measureCount;
+    int drawCount;
+
+    TestCallerInfoView(Context context) {
+        super(context);
+        // 与通话界面布局中相同, TextView设置文字时按宽高是否wrap_content决定是否requestLayout()
+        setLayoutParams(new ViewGroup.LayoutParams(ViewGroup.LayoutParams.WRAP_CONTENT,
+                ViewGroup.LayoutParams.WRAP_CONTENT));
+    }
+
+    @Override
+    protected void onTextChanged(CharSequence text, int start, int lengthBefore, int lengthAfter) {
+        textChangeCount++;
+        super.onTextChanged(text, start, lengthBefore, lengthAfter);
+    }
+
+    @Override
+    public void requestLayout() {
+        requestLayoutCount++;
+        super.requestLayout();
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        measureCount++;
+        super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        drawCount++;
+        super.onDraw(canvas);
+    }
+
+    void resetCounts() {
+        textChangeCount = 0;
+        requestLayoutCount = 0;
+        measureCount = 0;
+        drawCount = 0;
+        mCanvas.drawnText.setLength(0);
+        // Robolectric的Canvas记录所有绘制, 不清除时越来越慢
+        Shadows.shadowOf(mCanvas).resetCanvasHistory();
+    }
+
+    /** 上次resetCounts()后绘制的文字 */
+    String drawnText() {
+        return mCanvas.drawnText.toString();
+    }
+
+    /**
+     * 与ViewRootImpl的一帧相同: 需要时measure和layout(wrap_content, 宽度最多为父view宽度), 再绘制。
+     * Robolectric的View.draw()不调用onDraw(), 直接调用
+     */
+    void frame() {
+        if (isLayoutRequested()) {
+            measure(MeasureSpec.makeMeasureSpec(PARENT_WIDTH, MeasureSpec.AT_MOST),
+                    MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED));
+            layout(0, 0, getMeasuredWidth(), getMeasuredHeight());
+        }
+        onDraw(mCanvas);
+    }
+
+    /**
+     * 记录Layout.draw()绘制的文字, Robolectric的Canvas不记录drawTextRun()。
+     * Layout.draw()按getClipBounds()决定绘制的行, Robolectric返回空区域,
+     * 这里按clipRect(), translate(), scale()计算当前坐标系中的clip区域。
+     * 与真正的Canvas一样, 基线在clip区域外的文字不绘制(Layout.draw()会多取clip底边所在的下一行)
+     */
+    private static final class TextRecordingCanvas extends Canvas {
+        final StringBuilder drawnText = new StringBuilder();
+        private final ArrayDeque<RectF> mClips = new ArrayDeque<RectF>();
+
+        TextRecordingCanvas(Bitmap bitmap) {
+            super(bitmap);
+            mClips.push(new RectF(0, 0, bitmap.getWidth(), bitmap.getHeight()));
+        }
+
+        @Override
+        public int save() {
+            mClips.push(new RectF(mClips.peek()));
+            return super.save();
+        }
+
+        @Override
+        public void restore() {
+            mClips.pop();
+            super.restore();
+        }
+
+        @Override
+        public void translate(float dx, float dy) {
+            mClips.peek().offset(-dx, -dy);
+            super.translate(dx, dy);
+        }
+
+        @Override
+        public void scale(float sx, float sy) {
+            final RectF clip = mClips.peek();
+            clip.set(clip.left / sx, clip.top / sy, clip.right / sx, clip.bottom / sy);
+            super.scale(sx, sy);
+        }
+
+        @Override
+        public boolean clipRect(float left, float top, float right, float bottom) {
+            return mClips.peek().intersect(left, top, right, bottom);
+        }
+
+        @Override
+        public boolean clipRect(int left, int top, int right, int bottom) {
+            return clipRect((float) left, (float) top, (float) right, (float) bottom);
+        }
+
+        @Override
+        public boolean getClipBounds(Rect bounds) {
+            mClips.peek().roundOut(bounds);
+            return !bounds.isEmpty();
+        }
+
+        @Override
+        public void drawText(char[] text, int index, int count, float x, float y, Paint paint) {
+            record(text, index, index + count, y);
+        }
+
+        @Override
+        public void drawText(CharSequence text, int start, int end, float x, float y,
+                Paint paint) {
+            record(text, start, end, y);
+        }
+
+        @Override
+        public void drawTextRun(char[] text, int index, int count, int contextIndex,
+                int contextCount, float x, float y, boolean isRtl, Paint paint) {
+            record(text, index, index + count, y);
+        }
+
+        @Override
+        public void drawTextRun(CharSequence text, int start, int end, int contextStart,
+                int contextEnd, float x, float y, boolean isRtl, Paint paint) {
+            record(text, start, end, y);
+        }
+
+        private void record(char[] text, int start, int end, float y) {
+            record(CharBuffer.wrap(text), start, end, y);
+        }
+
+        private void record(CharSequence text, int start, int end, float y) {
+            final RectF clip = mClips.peek();
+            if (y >= clip.top && y <= clip.bottom) {
+                drawnText.append(text, start, end);
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.meizu.incallui.widget;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.android.incallui.Call;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+/**
+ * TextView模式下通话界面收起时的字体大小动画: 每帧setFirstLineTextSize()/setSecondLineTextSize()后绘制一帧,
+ * 比较每帧重新buildText()与startTextSizeAnimation()后只缩放绘制两种方式的每帧耗时(中位数)。
+ * 缩放绘制期间不重新setText(), 不requestLayout(), 结束后与直接设置结束字体大小的显示内容相同。
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 27, manifest = "src/test/AndroidManifest.xml", resourceDir = "res")
+public class TextSizeAnimationTest {
+    private static final int FIRST_LINE_FROM = 84;
+    private static final int FIRST_LINE_TO = 56;
+    private static final int SECOND_LINE_FROM = 45;
+    private static final int SECOND_LINE_TO = 36;
+    private static final int FRAMES = 30;
+    private static final int WARM_UP_ROUNDS = 20;
+    private static final int ROUNDS = 20;
+
+    private TestCallerInfoView mView;
+
+    @Before
+    public void setUp() {
+        mView = new TestCallerInfoView(RuntimeEnvironment.application);
+        mView.setAutoMaxContentWidth(true);
+        mView.beginUpdate();
+        mView.setInfos("欧阳娜娜的同事王小明", "13800138000", "广东 深圳", "快递送餐", 0);
+        mView.setExtraIconText(new Call(false, true), false);
+        mView.commitUpdate();
+    }
+
+    @Test
+    public void keyframesSkipRebuildAndAreFaster() {
+        final long[] rebuildTimes = new long[FRAMES * ROUNDS];
+        final long[] scaledTimes = new long[FRAMES * ROUNDS];
+        for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+            animate(false, null, 0);
+            animate(true, null, 0);
+        }
+        for (int i = 0; i < ROUNDS; i++) {
+            animate(false, rebuildTimes, i * FRAMES);
+            animate(true, scaledTimes, i * FRAMES);
+        }
+        final long rebuild = median(rebuildTimes);
+        final long scaled = median(scaledTimes);
+        System.out.println("text size animation frame: rebuild " + rebuild / 1000 + " us, scaled "
+                + scaled / 1000 + " us");
+        assertTrue("scaled " + scaled + " ns >= rebuild " + rebuild + " ns", scaled < rebuild);
+    }
+
+    @Test
+    public void scaledFramesDoNotRelayout() {
+        reset();
+        mView.startTextSizeAnimation(FIRST_LINE_TO, SECOND_LINE_TO);
+        mView.frame();
+        mView.resetCounts();
+        for (int frame = 1; frame <= FRAMES; frame++) {
+            setFrameTextSize(frame);
+            mView.frame();
+        }
+        assertEquals(0, mView.textChangeCount);
+        assertEquals(0, mView.requestLayoutCount);
+        assertEquals(0, mView.measureCount);
+        assertEquals(FRAMES, mView.drawCount);
+    }
+
+    /** 缩放绘制时两行文字都绘制, 每行只绘制一次 */
+    @Test
+    public void scaledFrameDrawsEachLineOnce() {
+        reset();
+        mView.frame();
+        final String expected = mView.drawnText();
+        assertTrue(expected, expected.contains("欧阳娜娜的同事王小明") && expected.contains("快递送餐"));
+
+        mView.startTextSizeAnimation(FIRST_LINE_TO, SECOND_LINE_TO);
+        setFrameTextSize(FRAMES / 2);
+        mView.resetCounts();
+        mView.frame();
+        assertEquals(expected, mView.drawnText());
+    }
+
+    /** 结束后按最后设置的字体大小排版, 与不经过动画直接设置的结果相同 */
+    @Test
+    public void endCommitsFinalLayout() {
+        reset();
+        mView.setFirstLineTextSize(FIRST_LINE_TO);
+        mView.setSecondLineTextSize(SECOND_LINE_TO);
+        mView.frame();
+        final String expectedText = mView.getText().toString();
+        final int expectedHeight = mView.getMeasuredHeight();
+
+        reset();
+        mView.startTextSizeAnimation(FIRST_LINE_TO, SECOND_LINE_TO);
+        for (int frame = 1; frame <= FRAMES; frame++) {
+            setFrameTextSize(frame);
+            mView.frame();
+        }
+        mView.endTextSizeAnimation();
+        mView.frame();
+        assertEquals(expectedText, mView.getText().toString());
+        assertEquals(expectedHeight, mView.getMeasuredHeight());
+    }
+
+    /** 从起始字体大小动画到结束字体大小, times不为null时记录每帧耗时 */
+    private void animate(boolean scaled, long[] times, int offset) {
+        reset();
+        if (scaled) {
+            mView.startTextSizeAnimation(FIRST_LINE_TO, SECOND_LINE_TO);
+            mView.frame();
+        }
+        for (int frame = 1; frame <= FRAMES; frame++) {
+            mView.resetCounts();
+            final long start = System.nanoTime();
+            setFrameTextSize(frame);
+            mView.frame();
+            if (times != null) {
+                times[offset + frame - 1] = System.nanoTime() - start;
+            }
+        }
+        if (scaled) {
+            mView.endTextSizeAnimation();
+            mView.frame();
+        }
+    }
+
+    private void reset() {
+        mView.setFirstLineTextSize(FIRST_LINE_FROM);
+        mView.setSecondLineTextSize(SECOND_LINE_FROM);
+        mView.frame();
+        mView.resetCounts();
+    }
+
+    private void setFrameTextSize(int frame) {
+        mView.setFirstLineTextSize(
+                FIRST_LINE_FROM + (FIRST_LINE_TO - FIRST_LINE_FROM) * frame / FRAMES);
+        mView.setSecondLineTextSize(
+                SECOND_LINE_FROM + (SECOND_LINE_TO - SECOND_LINE_FROM) * frame / FRAMES);
+    }
+
+    private static long median(long[] times) {
+        final long[] sorted = times.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}